@@ -0,0 +1,153 @@
+package com.andressantibanez.ranger;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import org.joda.time.DateTime;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Asks a {@link Ranger.AvailabilityProvider} for availability in batches of days and keeps the
+ * latest batches in a bounded cache. Batches are aligned to epoch days, so they stay valid when
+ * the range changes. Results are applied on the main thread.
+ */
+final class AvailabilityLoader {
+
+    /**
+     * Constants
+     */
+    //One bit per day of a batch
+    static final int BATCH_DAYS = 32;
+    private static final int BATCH_SHIFT = 5;
+    //About five years of batches
+    private static final int CACHE_BATCHES = 64;
+    //Day states
+    static final int AVAILABLE = 0;
+    static final int UNAVAILABLE = 1;
+    static final int PENDING = 2;
+
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    /**
+     * Variables
+     */
+    final Ranger mRanger;
+    final Ranger.AvailabilityProvider mProvider;
+    //Unavailable days bit mask keyed by batch
+    final LruCache<Integer, Integer> mBatches = new LruCache<>(CACHE_BATCHES);
+    final Set<Integer> mLoadingBatches = new HashSet<>();
+    boolean mReleased;
+    //Last batch looked up, consecutive days mostly share it
+    int mLastBatch;
+    int mLastUnavailableDays;
+    boolean mHasLastBatch;
+
+    AvailabilityLoader(Ranger ranger, Ranger.AvailabilityProvider provider) {
+        mRanger = ranger;
+        mProvider = provider;
+    }
+
+    /**
+     * State of the day, requesting its batch when it is not cached
+     */
+    int getState(int epochDay) {
+        int batch = epochDay >> BATCH_SHIFT;
+        if (!mHasLastBatch || batch != mLastBatch) {
+            Integer unavailableDays = mBatches.get(batch);
+            if (unavailableDays == null) {
+                load(batch);
+                return PENDING;
+            }
+            mLastBatch = batch;
+            mLastUnavailableDays = unavailableDays;
+            mHasLastBatch = true;
+        }
+        return (mLastUnavailableDays >>> (epochDay & (BATCH_DAYS - 1)) & 1) != 0 ? UNAVAILABLE : AVAILABLE;
+    }
+
+    /**
+     * Whether any day in [fromDay, toDay] is unavailable or still loading, checked a batch at a time
+     */
+    boolean hasUnavailableDay(int fromDay, int toDay) {
+        for (int batch = fromDay >> BATCH_SHIFT; batch <= toDay >> BATCH_SHIFT; batch++) {
+            Integer unavailableDays = mBatches.get(batch);
+            if (unavailableDays == null) {
+                load(batch);
+                return true;
+            }
+
+            //Days of the batch within the interval
+            int firstDay = batch << BATCH_SHIFT;
+            int fromOffset = Math.max(fromDay - firstDay, 0);
+            int toOffset = Math.min(toDay - firstDay, BATCH_DAYS - 1);
+            int daysMask = (int) ((1L << (toOffset + 1)) - (1L << fromOffset));
+            if ((unavailableDays & daysMask) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Requests the batches of [fromDay, toDay] that are neither cached nor loading
+     */
+    void prefetch(int fromDay, int toDay) {
+        for (int batch = fromDay >> BATCH_SHIFT; batch <= toDay >> BATCH_SHIFT; batch++) {
+            if (mBatches.get(batch) == null)
+                load(batch);
+        }
+    }
+
+    private void load(final int batch) {
+        if (!mLoadingBatches.add(batch)) {
+            return;
+        }
+
+        final int firstDay = batch << BATCH_SHIFT;
+        mProvider.loadAvailability(mRanger.toDateTime(firstDay), BATCH_DAYS, new Ranger.AvailabilityCallback() {
+            @Override
+            public void onAvailabilityLoaded(List<DateTime> unavailableDates) {
+                int unavailableDays = 0;
+                if (unavailableDates != null) {
+                    for (DateTime date : unavailableDates) {
+                        int offset = Ranger.toEpochDay(date) - firstDay;
+                        if (offset >= 0 && offset < BATCH_DAYS)
+                            unavailableDays |= 1 << offset;
+                    }
+                }
+
+                final int batchUnavailableDays = unavailableDays;
+                MAIN_HANDLER.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        //Ignore late and repeated answers
+                        if (mReleased || !mLoadingBatches.remove(batch)) {
+                            return;
+                        }
+                        mBatches.put(batch, batchUnavailableDays);
+                        mRanger.onAvailabilityLoaded(firstDay, BATCH_DAYS);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Drops cached batches, they are asked for again when needed
+     */
+    void trim() {
+        mBatches.evictAll();
+        mHasLastBatch = false;
+    }
+
+    /**
+     * Stops delivering results, answers still on their way are dropped
+     */
+    void release() {
+        mReleased = true;
+    }
+}
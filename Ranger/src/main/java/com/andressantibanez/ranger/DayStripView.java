@@ -0,0 +1,288 @@
+package com.andressantibanez.ranger;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.util.TypedValue;
+import android.view.MotionEvent;
+import android.view.SoundEffectConstants;
+import android.view.View;
+import android.view.ViewConfiguration;
+
+import com.andressantibanez.ranger.core.DayLabels;
+import com.andressantibanez.ranger.core.DayModel;
+
+/**
+ * Draws every day of a {@link Ranger} in a single view, used by the canvas render mode.
+ * Only the days around the viewport are drawn, labels are measured once per setup and
+ * taps are resolved to a day index arithmetically.
+ */
+final class DayStripView extends View {
+
+    /**
+     * Constants
+     */
+    //Same dimensions as day_layout.xml
+    private static final int CELL_PADDING_HORIZONTAL_DP = 12;
+    private static final int CELL_PADDING_VERTICAL_DP = 8;
+    private static final int DAY_NUMBER_PADDING_DP = 4;
+    private static final int DAY_OF_WEEK_TEXT_SIZE_DP = 12;
+    private static final int DAY_NUMBER_TEXT_SIZE_DP = 16;
+    private static final int MONTH_TEXT_SIZE_SP = 12;
+    private static final int BADGE_TEXT_SIZE_SP = 10;
+
+    /**
+     * Variables
+     */
+    final Ranger mRanger;
+
+    //Paints
+    final Paint mDayOfWeekPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    final Paint mDayNumberPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    final Paint mMonthPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    final Paint mBadgePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    final Paint mSelectedBackgroundPaint = new Paint();
+    final Paint mSelectedRangeBackgroundPaint = new Paint();
+
+    //Labels and their widths
+    final String[] mDayOfWeekLabels = new String[7];
+    final float[] mDayOfWeekWidths = new float[7];
+    final String[] mMonthLabels = new String[12];
+    final float[] mMonthWidths = new float[12];
+    final float[] mDayNumberWidths = new float[31];
+
+    //Metrics
+    int mCellWidth;
+    int mCellHeight;
+    float mDayOfWeekBaseline;
+    float mDayNumberBaseline;
+    float mMonthBaseline;
+    float mBadgeBaseline;
+    boolean mHasMonthRow;
+    boolean mHasBadgeRow;
+
+    //Drawn window
+    int mFirstDrawnIndex;
+    int mLastDrawnIndex = -1;
+    //Badges of the drawn window and their widths, formatted when the window or metadata changes
+    String[] mBadgeTexts = new String[0];
+    float[] mBadgeWidths = new float[0];
+
+    //Touch
+    final int mTouchSlop;
+    float mDownX;
+
+    DayStripView(Ranger ranger) {
+        super(ranger.getContext());
+        mRanger = ranger;
+        mTouchSlop = ViewConfiguration.get(getContext()).getScaledTouchSlop();
+
+        mDayOfWeekPaint.setTextSize(toPixels(TypedValue.COMPLEX_UNIT_DIP, DAY_OF_WEEK_TEXT_SIZE_DP));
+        mDayNumberPaint.setTextSize(toPixels(TypedValue.COMPLEX_UNIT_DIP, DAY_NUMBER_TEXT_SIZE_DP));
+        mMonthPaint.setTextSize(toPixels(TypedValue.COMPLEX_UNIT_SP, MONTH_TEXT_SIZE_SP));
+        mBadgePaint.setTextSize(toPixels(TypedValue.COMPLEX_UNIT_SP, BADGE_TEXT_SIZE_SP));
+    }
+
+    /**
+     * Rebuilds labels and metrics from the current range and display options
+     */
+    void setup() {
+        DayLabels labels = mRanger.mLabels;
+
+        //Labels. Day of week is all caps as in day_layout.xml
+        float maxDayOfWeekWidth = 0;
+        for (int i = 0; i < 7; i++) {
+            String label = labels.dayOfWeek(i + 1).toUpperCase(labels.getLocale());
+            mDayOfWeekLabels[i] = label;
+            mDayOfWeekWidths[i] = mDayOfWeekPaint.measureText(label);
+            maxDayOfWeekWidth = Math.max(maxDayOfWeekWidth, mDayOfWeekWidths[i]);
+        }
+        float maxMonthWidth = 0;
+        for (int i = 0; i < 12; i++) {
+            String label = labels.month(i + 1);
+            mMonthLabels[i] = label;
+            mMonthWidths[i] = mMonthPaint.measureText(label);
+            maxMonthWidth = Math.max(maxMonthWidth, mMonthWidths[i]);
+        }
+        float maxDayNumberWidth = 0;
+        for (int i = 0; i < 31; i++) {
+            mDayNumberWidths[i] = mDayNumberPaint.measureText(DayLabels.dayNumber(i + 1));
+            maxDayNumberWidth = Math.max(maxDayNumberWidth, mDayNumberWidths[i]);
+        }
+
+        //Month row is only needed when some day shows it
+        DayModel model = mRanger.mModel;
+        mHasMonthRow = mRanger.mAlwaysDisplayMonth || model.getDayCount() > 31
+                || (model.getDayCount() > 0 && !model.isInEndMonth(0));
+
+        //Badge row is only needed once there is metadata
+        mHasBadgeRow = !mRanger.mDayMetadata.isEmpty();
+
+        //Cell width
+        float dayNumberPadding = toPixels(TypedValue.COMPLEX_UNIT_DIP, DAY_NUMBER_PADDING_DP);
+        float contentWidth = maxDayNumberWidth + 2 * dayNumberPadding;
+        if (mRanger.mDisplayDayOfWeek)
+            contentWidth = Math.max(contentWidth, maxDayOfWeekWidth);
+        if (mHasMonthRow)
+            contentWidth = Math.max(contentWidth, maxMonthWidth);
+        mCellWidth = (int) Math.ceil(contentWidth + 2 * toPixels(TypedValue.COMPLEX_UNIT_DIP, CELL_PADDING_HORIZONTAL_DP));
+
+        //Rows, stacked like the TextViews in day_layout.xml
+        float y = toPixels(TypedValue.COMPLEX_UNIT_DIP, CELL_PADDING_VERTICAL_DP);
+        if (mRanger.mDisplayDayOfWeek) {
+            Paint.FontMetrics metrics = mDayOfWeekPaint.getFontMetrics();
+            mDayOfWeekBaseline = y - metrics.top;
+            y += metrics.bottom - metrics.top;
+        }
+        Paint.FontMetrics dayNumberMetrics = mDayNumberPaint.getFontMetrics();
+        mDayNumberBaseline = y + dayNumberPadding - dayNumberMetrics.top;
+        y += dayNumberMetrics.bottom - dayNumberMetrics.top + 2 * dayNumberPadding;
+        if (mHasMonthRow) {
+            Paint.FontMetrics metrics = mMonthPaint.getFontMetrics();
+            mMonthBaseline = y - metrics.top;
+            y += metrics.bottom - metrics.top;
+        }
+        if (mHasBadgeRow) {
+            Paint.FontMetrics metrics = mBadgePaint.getFontMetrics();
+            mBadgeBaseline = y - metrics.top;
+            y += metrics.bottom - metrics.top;
+        }
+        mCellHeight = (int) Math.ceil(y + toPixels(TypedValue.COMPLEX_UNIT_DIP, CELL_PADDING_VERTICAL_DP));
+
+        mSelectedBackgroundPaint.setColor(mRanger.mSelectedDayBackgroundColor);
+        mSelectedRangeBackgroundPaint.setColor(mRanger.mSelectedRangeBackgroundColor);
+        mFirstDrawnIndex = 0;
+        mLastDrawnIndex = -1;
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * Called when the strip scrolls. Redraws only once the visible days leave the drawn window.
+     */
+    void setViewport(int scrollX, int width) {
+        if (mCellWidth == 0) {
+            return;
+        }
+
+        int firstVisible = Math.max(0, scrollX / mCellWidth);
+        int lastVisible = Math.min(mRanger.mModel.getDayCount() - 1, (scrollX + width) / mCellWidth);
+        if (firstVisible < mFirstDrawnIndex || lastVisible > mLastDrawnIndex) {
+            //Draw one extra viewport on each side
+            int visibleCount = lastVisible - firstVisible + 1;
+            mFirstDrawnIndex = Math.max(0, firstVisible - visibleCount);
+            mLastDrawnIndex = Math.min(mRanger.mModel.getDayCount() - 1, lastVisible + visibleCount);
+            bindBadges();
+            invalidate();
+        }
+    }
+
+    /**
+     * Badges
+     */
+    private void bindBadges() {
+        if (!mHasBadgeRow) {
+            return;
+        }
+
+        int count = mLastDrawnIndex - mFirstDrawnIndex + 1;
+        if (mBadgeTexts.length < count) {
+            mBadgeTexts = new String[count];
+            mBadgeWidths = new float[count];
+        }
+        for (int index = mFirstDrawnIndex; index <= mLastDrawnIndex; index++) {
+            bindBadge(index);
+        }
+    }
+
+    /**
+     * Formats the badge of a day after its metadata changed, days outside the drawn window are
+     * formatted once they are drawn
+     */
+    void bindBadge(int index) {
+        if (!mHasBadgeRow || index < mFirstDrawnIndex || index > mLastDrawnIndex) {
+            return;
+        }
+
+        String badge = mRanger.getBadgeText(index);
+        mBadgeTexts[index - mFirstDrawnIndex] = badge;
+        mBadgeWidths[index - mFirstDrawnIndex] = badge != null ? mBadgePaint.measureText(badge) : 0;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        setMeasuredDimension(mRanger.mModel.getDayCount() * mCellWidth, mCellHeight);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        DayModel model = mRanger.mModel;
+        int left = mFirstDrawnIndex * mCellWidth;
+
+        for (int index = mFirstDrawnIndex; index <= mLastDrawnIndex; index++) {
+            //Style
+            int textColor;
+            if (mRanger.isDaySelected(index)) {
+                canvas.drawRect(left, 0, left + mCellWidth, mCellHeight, mSelectedBackgroundPaint);
+                textColor = mRanger.mSelectedDayTextColor;
+                mBadgePaint.setColor(textColor);
+            } else {
+                if (mRanger.isDayInSelectedRange(index))
+                    canvas.drawRect(left, 0, left + mCellWidth, mCellHeight, mSelectedRangeBackgroundPaint);
+                textColor = mRanger.getDayTextColor(index);
+                mBadgePaint.setColor(mRanger.mBadgeTextColor);
+            }
+            mDayOfWeekPaint.setColor(textColor);
+            mDayNumberPaint.setColor(textColor);
+            mMonthPaint.setColor(textColor);
+
+            //Labels
+            if (mRanger.mDisplayDayOfWeek) {
+                int dayOfWeek = model.dayOfWeek(index) - 1;
+                canvas.drawText(mDayOfWeekLabels[dayOfWeek], left + (mCellWidth - mDayOfWeekWidths[dayOfWeek]) / 2, mDayOfWeekBaseline, mDayOfWeekPaint);
+            }
+
+            int dayOfMonth = model.dayOfMonth(index);
+            canvas.drawText(DayLabels.dayNumber(dayOfMonth), left + (mCellWidth - mDayNumberWidths[dayOfMonth - 1]) / 2, mDayNumberBaseline, mDayNumberPaint);
+
+            int month = model.monthOfYear(index);
+            if (mHasMonthRow && (mRanger.mAlwaysDisplayMonth || !model.isInEndMonth(index))) {
+                canvas.drawText(mMonthLabels[month - 1], left + (mCellWidth - mMonthWidths[month - 1]) / 2, mMonthBaseline, mMonthPaint);
+            }
+
+            String badge = mHasBadgeRow ? mBadgeTexts[index - mFirstDrawnIndex] : null;
+            if (badge != null) {
+                canvas.drawText(badge, left + (mCellWidth - mBadgeWidths[index - mFirstDrawnIndex]) / 2, mBadgeBaseline, mBadgePaint);
+            }
+
+            //Next day
+            left += mCellWidth;
+        }
+    }
+
+    /**
+     * Hit-testing
+     */
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mDownX = event.getX();
+                return true;
+
+            case MotionEvent.ACTION_UP:
+                if (Math.abs(event.getX() - mDownX) < mTouchSlop && mCellWidth > 0) {
+                    int index = (int) (event.getX() / mCellWidth);
+                    if (index >= 0 && index < mRanger.mModel.getDayCount() && !mRanger.isDayDisabled(index)) {
+                        playSoundEffect(SoundEffectConstants.CLICK);
+                        mRanger.onDayTapped(index);
+                    }
+                }
+                return true;
+        }
+        return super.onTouchEvent(event);
+    }
+
+    private float toPixels(int unit, int value) {
+        return TypedValue.applyDimension(unit, value, getResources().getDisplayMetrics());
+    }
+}
@@ -0,0 +1,128 @@
+package com.andressantibanez.ranger;
+
+import android.content.Context;
+import android.support.v4.view.AsyncLayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+
+/**
+ * Day cells given back by {@link Ranger} instances, ready to be bound again. Rangers shown in the
+ * rows of a list can share one pool, so a row takes the cells of the rows scrolled away instead of
+ * inflating its own. Cells keep the context they were inflated with, share a pool only between
+ * Rangers of the same Activity. Main thread only.
+ */
+public final class DayViewPool {
+
+    /**
+     * Constants
+     */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+    //AsyncLayoutInflater blocks the caller once 10 requests are queued
+    private static final int PREWARM_IN_FLIGHT = 4;
+
+    /**
+     * Variables
+     */
+    final ArrayList<Ranger.DayView> mDayViews = new ArrayList<>();
+    final int mMaxSize;
+
+    //Prewarming
+    AsyncLayoutInflater mInflater;
+    Context mInflaterContext;
+    int mPrewarmRemaining;
+    int mPrewarmInFlight;
+    int mPrewarmGeneration;
+
+    public DayViewPool() {
+        this(UNBOUNDED);
+    }
+
+    /**
+     * Cells given back while the pool holds maxSize of them are dropped
+     */
+    public DayViewPool(int maxSize) {
+        if (maxSize < 0)
+            throw new IllegalArgumentException("Pool size can't be negative");
+        mMaxSize = maxSize;
+    }
+
+    /**
+     * Inflates up to count cells on a background thread and adds them to the pool as they are
+     * ready, for example at startup or while a screen transitions in. Rangers inflate cells on
+     * the main thread only once the pool runs out. Use the context the Rangers are shown in.
+     */
+    public void prewarm(Context context, int count) {
+        if (mInflater == null || mInflaterContext != context) {
+            mInflater = new AsyncLayoutInflater(context);
+            mInflaterContext = context;
+        }
+
+        //Never more than the pool can hold
+        mPrewarmRemaining = Math.max(0, Math.min(count, mMaxSize - mDayViews.size() - mPrewarmInFlight));
+        while (mPrewarmInFlight < PREWARM_IN_FLIGHT && mPrewarmRemaining > 0) {
+            inflateNext();
+        }
+    }
+
+    /**
+     * Cells still to be inflated by {@link #prewarm(Context, int)}
+     */
+    public int getPrewarmRemaining() {
+        return mPrewarmRemaining + mPrewarmInFlight;
+    }
+
+    private void inflateNext() {
+        final int generation = mPrewarmGeneration;
+        mPrewarmRemaining--;
+        mPrewarmInFlight++;
+        mInflater.inflate(R.layout.day_layout, null, new AsyncLayoutInflater.OnInflateFinishedListener() {
+            @Override
+            public void onInflateFinished(View view, int resid, ViewGroup parent) {
+                //Dropped by clear()
+                if (generation != mPrewarmGeneration) {
+                    return;
+                }
+
+                mPrewarmInFlight--;
+                release(new Ranger.DayView(view));
+                if (mPrewarmRemaining > 0)
+                    inflateNext();
+            }
+        });
+    }
+
+    /**
+     * A pooled cell or null when the pool is empty
+     */
+    Ranger.DayView acquire() {
+        return mDayViews.isEmpty() ? null : mDayViews.remove(mDayViews.size() - 1);
+    }
+
+    void release(Ranger.DayView dayView) {
+        //Cells may only have one parent
+        View view = dayView.getView();
+        if (view.getParent() instanceof ViewGroup)
+            ((ViewGroup) view.getParent()).removeView(view);
+
+        if (mDayViews.size() < mMaxSize)
+            mDayViews.add(dayView);
+    }
+
+    public int size() {
+        return mDayViews.size();
+    }
+
+    /**
+     * Drops pooled cells and stops prewarming
+     */
+    public void clear() {
+        mDayViews.clear();
+        mPrewarmGeneration++;
+        mPrewarmRemaining = 0;
+        mPrewarmInFlight = 0;
+        mInflater = null;
+        mInflaterContext = null;
+    }
+}
@@ -0,0 +1,98 @@
+package com.andressantibanez.ranger;
+
+import android.content.Context;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+
+/**
+ * Container of the day cells. Lays them out like a horizontal LinearLayout, except when every
+ * cell has the same fixed width: cells are then placed one cell width after the other and only
+ * measured when they request a layout or were measured at another width, instead of measuring
+ * every cell on each layout pass.
+ */
+public final class DaysLayout extends LinearLayout {
+
+    /**
+     * Variables
+     */
+    //Width of every cell, 0 lays out as a LinearLayout
+    int mFixedCellWidth;
+
+    public DaysLayout(Context context) {
+        super(context);
+    }
+
+    public DaysLayout(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    void setFixedCellWidth(int cellWidth) {
+        if (mFixedCellWidth == cellWidth)
+            return;
+
+        mFixedCellWidth = cellWidth;
+        requestLayout();
+    }
+
+    private static boolean isCell(View child) {
+        return child.getTag() instanceof Ranger.DayView;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        if (mFixedCellWidth == 0 || getOrientation() != HORIZONTAL) {
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+            return;
+        }
+
+        int cellWidthSpec = MeasureSpec.makeMeasureSpec(mFixedCellWidth, MeasureSpec.EXACTLY);
+        int cellHeightSpec = getChildMeasureSpec(heightMeasureSpec, getPaddingTop() + getPaddingBottom(), ViewGroup.LayoutParams.WRAP_CONTENT);
+        int width = getPaddingLeft() + getPaddingRight();
+        int height = 0;
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            if (child.getVisibility() == GONE) {
+                continue;
+            }
+
+            if (isCell(child)) {
+                //Cells keep their measurement until they request a layout
+                if (child.isLayoutRequested() || child.getMeasuredWidth() != mFixedCellWidth)
+                    child.measure(cellWidthSpec, cellHeightSpec);
+                width += mFixedCellWidth;
+            } else {
+                measureChild(child, widthMeasureSpec, heightMeasureSpec);
+                width += child.getMeasuredWidth();
+            }
+            height = Math.max(height, child.getMeasuredHeight());
+        }
+
+        height += getPaddingTop() + getPaddingBottom();
+        setMeasuredDimension(resolveSize(Math.max(width, getSuggestedMinimumWidth()), widthMeasureSpec),
+                resolveSize(Math.max(height, getSuggestedMinimumHeight()), heightMeasureSpec));
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        if (mFixedCellWidth == 0 || getOrientation() != HORIZONTAL) {
+            super.onLayout(changed, l, t, r, b);
+            return;
+        }
+
+        //One cell width after the other
+        int left = getPaddingLeft();
+        int top = getPaddingTop();
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            if (child.getVisibility() == GONE) {
+                continue;
+            }
+
+            int width = isCell(child) ? mFixedCellWidth : child.getMeasuredWidth();
+            child.layout(left, top, left + width, top + child.getMeasuredHeight());
+            left += width;
+        }
+    }
+}
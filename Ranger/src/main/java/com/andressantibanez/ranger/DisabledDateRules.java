@@ -0,0 +1,74 @@
+package com.andressantibanez.ranger;
+
+import com.andressantibanez.ranger.core.DayRules;
+
+import org.joda.time.DateTime;
+
+/**
+ * Disabled dates described by rules instead of listed one by one, see
+ * {@link Ranger#setDisabledDateRules(DisabledDateRules)}. Rules combine with the disabled dates
+ * list. Dates are taken as local dates in their own zone, regardless of the time of day.
+ */
+public final class DisabledDateRules {
+
+    final DayRules mDayRules;
+
+    DisabledDateRules(DayRules dayRules) {
+        mDayRules = dayRules;
+    }
+
+    public boolean isDisabled(DateTime date) {
+        return mDayRules.isDisabled(Ranger.toEpochDay(date));
+    }
+
+    DayRules getDayRules() {
+        return mDayRules;
+    }
+
+    /**
+     * Builder
+     */
+    public static final class Builder {
+
+        final DayRules.Builder mBuilder = new DayRules.Builder();
+
+        /**
+         * Disables every week on the given days, from {@link org.joda.time.DateTimeConstants#MONDAY}
+         * to {@link org.joda.time.DateTimeConstants#SUNDAY}
+         */
+        public Builder weekdays(int... daysOfWeek) {
+            for (int dayOfWeek : daysOfWeek) {
+                mBuilder.weekday(dayOfWeek);
+            }
+            return this;
+        }
+
+        /**
+         * Disables the dates from fromDate to toDate, both included
+         */
+        public Builder between(DateTime fromDate, DateTime toDate) {
+            mBuilder.interval(Ranger.toEpochDay(fromDate), Ranger.toEpochDay(toDate));
+            return this;
+        }
+
+        /**
+         * Disables fromDate and every days-th date after it
+         */
+        public Builder every(int days, DateTime fromDate) {
+            mBuilder.every(days, Ranger.toEpochDay(fromDate));
+            return this;
+        }
+
+        /**
+         * Keeps the date enabled whatever the other rules say. Dates in the disabled dates list stay disabled.
+         */
+        public Builder except(DateTime date) {
+            mBuilder.except(Ranger.toEpochDay(date));
+            return this;
+        }
+
+        public DisabledDateRules build() {
+            return new DisabledDateRules(mBuilder.build());
+        }
+    }
+}
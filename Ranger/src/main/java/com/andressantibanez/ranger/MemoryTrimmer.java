@@ -0,0 +1,49 @@
+package com.andressantibanez.ranger;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Forwards memory pressure to every live {@link Ranger}. Registered once with the application,
+ * Rangers are held weakly so a detached one can still be trimmed and then collected. Main thread only.
+ */
+final class MemoryTrimmer implements ComponentCallbacks2 {
+
+    /**
+     * Variables
+     */
+    private static MemoryTrimmer sInstance;
+
+    final Set<Ranger> mRangers = Collections.newSetFromMap(new WeakHashMap<Ranger, Boolean>());
+
+    static void register(Ranger ranger) {
+        if (sInstance == null) {
+            sInstance = new MemoryTrimmer();
+            ranger.getContext().getApplicationContext().registerComponentCallbacks(sInstance);
+        }
+        sInstance.mRangers.add(ranger);
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        //Copy, trimming may render
+        Ranger[] rangers = mRangers.toArray(new Ranger[mRangers.size()]);
+        for (Ranger ranger : rangers) {
+            if (ranger != null)
+                ranger.onTrimMemory(level);
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        onTrimMemory(TRIM_MEMORY_COMPLETE);
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig) {
+    }
+}
@@ -1,25 +1,50 @@
 package com.andressantibanez.ranger;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
+import android.hardware.SensorManager;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.Parcel;
 import android.os.Parcelable;
-import android.text.TextUtils;
+import android.os.SystemClock;
 import android.util.AttributeSet;
+import android.util.SparseArray;
 import android.view.LayoutInflater;
+import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+import android.view.WindowManager;
+import android.widget.FrameLayout;
 import android.widget.HorizontalScrollView;
 import android.widget.LinearLayout;
 import android.widget.Space;
 import android.widget.TextView;
 
-import net.danlew.android.joda.JodaTimeAndroid;
+import com.andressantibanez.ranger.core.DayLabels;
+import com.andressantibanez.ranger.core.DayMetadata;
+import com.andressantibanez.ranger.core.DayModel;
+import com.andressantibanez.ranger.core.DayRules;
+import com.andressantibanez.ranger.core.DisabledDays;
+import com.andressantibanez.ranger.core.EpochDays;
+import com.andressantibanez.ranger.core.SelectionDiff;
 
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+import org.joda.time.LocalTime;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 public class Ranger extends HorizontalScrollView implements View.OnClickListener {
 
@@ -34,16 +59,109 @@ public class Ranger extends HorizontalScrollView implements View.OnClickListener
     public static final int DAY_OF_WEEK_RES_ID = R.id.day_of_week;
     public static final int DAY_NUMBER_RES_ID = R.id.day_number;
     public static final int MONTH_NAME_RES_ID = R.id.month_short_name;
+    public static final int DAY_BADGE_RES_ID = R.id.day_badge;
+    //Render modes
+    public static final int RENDER_MODE_INFLATED = 0;
+    public static final int RENDER_MODE_VIRTUALIZED = 1;
+    public static final int RENDER_MODE_CANVAS = 2;
+    //Selection modes
+    public static final int SELECTION_MODE_SINGLE = 0;
+    public static final int SELECTION_MODE_RANGE = 1;
+    //Selection highlights
+    public static final int SELECTION_HIGHLIGHT_CELL = 0;
+    public static final int SELECTION_HIGHLIGHT_OVERLAY = 1;
+    //Retention policies
+    public static final int RETENTION_KEEP = 0;
+    public static final int RETENTION_TRIM = 1;
+    public static final int RETENTION_DETACH = 2;
+    //Extra cells bound on each side of the viewport when virtualized
+    private static final int VIRTUALIZED_MARGIN_CELLS = 2;
+    //Models up to this many days plus disabled days are built right away, larger ones off the main thread
+    static final int SYNCHRONOUS_MODEL_SIZE = 2048;
+    //Pending selections besides an epoch day or DisabledDays.NO_DAY
+    private static final int SELECT_FIRST_ENABLED = Integer.MIN_VALUE + 1;
+    private static final int SELECT_KEEP = Integer.MIN_VALUE + 2;
+    //Paging of open ended ranges
+    private static final int DEFAULT_PAGING_WINDOW_DAYS = 180;
+    private static final int DEFAULT_PAGING_PREFETCH_DAYS = 30;
+    //Fling prefetch binds at most this many cells ahead and stops short of the frame deadline
+    private static final int MAX_PREFETCH_CELLS = 32;
+    private static final long PREFETCH_DEADLINE_MARGIN_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+    //A fling that doesn't scroll for this many frames has stopped
+    private static final int FLING_IDLE_FRAMES = 3;
+    //Fling deceleration, as OverScroller computes it
+    private static final float FLING_INFLEXION = 0.35f;
+    private static final double FLING_DECELERATION_RATE = Math.log(0.78) / Math.log(0.9);
+    //Day models are built one at a time and committed on the main thread
+    static final ExecutorService MODEL_EXECUTOR = Executors.newSingleThreadExecutor();
+    static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
 
     /**
      * Variables
      */
-    //State
+    //State. Days are epoch days, Joda is only used at the API boundary
     Context mContext;
-    DateTime mStartDate;
-    DateTime mEndDate;
-    int mSelectedDay;
-    List<DateTime> mDisabledDates = new ArrayList<>();
+    //Latest range and disabled days set, mModel catches up once built
+    boolean mHasRange;
+    int mStartEpochDay;
+    int mEndEpochDay;
+    int mDayCount;
+    int[] mDisabledEpochDays = new int[0];
+    //Built from mDisabledEpochDays by the last model, null until then
+    DisabledDays mDisabledDays;
+    DayRules mDisabledRules = DayRules.NONE;
+    //Supplies the range and disabled dates while attached
+    SharedCalendar mSharedCalendar;
+    //Zone and time of day of the start date, to build the DateTimes handed out
+    DateTimeZone mZone;
+    String mZoneId;
+    int mStartMillisOfDay;
+    int mSelectedIndex = -1;
+    //Last day of a range selection, -1 while only its first day is chosen
+    int mSelectedEndIndex = -1;
+    int mSelectionMode = SELECTION_MODE_SINGLE;
+    //First day selection waiting for an availability batch to know which day that is
+    boolean mSelectionAwaitsAvailability;
+    boolean mAwaitingSelectionNotifies;
+    final int[] mChangedIntervals = new int[SelectionDiff.MAX_INTERVAL_VALUES];
+
+    //Day model being displayed, null until the first range is committed
+    DayModel mModel;
+    Future<?> mModelTask;
+    int mModelGeneration;
+    int mPendingSelection;
+    boolean mPendingSelectionNotifies;
+    int mPendingSelectionEnd = DisabledDays.NO_DAY;
+    //Scroll waiting for the model or a layout
+    int mPendingScrollDay = DisabledDays.NO_DAY;
+    boolean mPendingScrollSmooth;
+
+    //Paging. Open ended ranges grow while scrolling and only pack the days around the viewport
+    boolean mOpenEnded;
+    int mPagingWindowDays = DEFAULT_PAGING_WINDOW_DAYS;
+    int mPagingPrefetchDays = DEFAULT_PAGING_PREFETCH_DAYS;
+
+    //Fling prefetch. Cells a fling is heading to are bound in the idle time left in each frame
+    int mFlingDirection;
+    int mFlingTargetIndex;
+    final SparseArray<DayView> mPrefetchedDayViews = new SparseArray<>();
+    long mFrameIntervalNanos;
+    long mPrefetchDeadlineNanos;
+    long mPrefetchBindNanos;
+    boolean mPrefetchPosted;
+    final Runnable mPrefetchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mPrefetchPosted = false;
+            prefetchFlingCells();
+        }
+    };
+    final Runnable mFlingIdleRunnable = new Runnable() {
+        @Override
+        public void run() {
+            cancelFlingPrefetch();
+        }
+    };
 
     //Colors
     int mDayTextColor;
@@ -51,10 +169,34 @@ public class Ranger extends HorizontalScrollView implements View.OnClickListener
     int mSelectedDayTextColor;
     int mDaysContainerBackgroundColor;
     int mSelectedDayBackgroundColor;
+    int mDayPlaceholderTextColor;
+    int mSelectedRangeBackgroundColor;
+    int mBadgeTextColor;
+
+    //Selection highlight, the overlay is drawn behind the cells
+    int mSelectionHighlight = SELECTION_HIGHLIGHT_CELL;
+    SelectionHighlight mHighlight;
+    long mHighlightDuration;
 
     //Titles
     boolean mAlwaysDisplayMonth;
     boolean mDisplayDayOfWeek;
+    DayLabels mLabels;
+
+    //Rendering
+    int mRenderMode = RENDER_MODE_INFLATED;
+    boolean mFixedCellWidth;
+    int mCellWidth;
+    int mFirstBoundIndex;
+    List<DayView> mBoundDayViews = new ArrayList<>();
+    DayViewPool mDayViewPool = new DayViewPool();
+    boolean mOwnsDayViewPool = true;
+    DayStripView mDayStripView;
+
+    //Memory. Released Rangers keep an unpacked model and render again once attached
+    int mRetentionPolicy = RETENTION_TRIM;
+    boolean mResourcesReleased;
+    int mReleasedScrollDay = DisabledDays.NO_DAY;
 
     //Listener
     DayViewOnClickListener mListener;
@@ -63,37 +205,116 @@ public class Ranger extends HorizontalScrollView implements View.OnClickListener
     }
 
     public DateTime getSelectedDate() {
-        //Cycle from start day
-        DateTime startDate = mStartDate;
-        DateTime endDate = mEndDate;
-
-        DateTime selectedDate = null;
-        Boolean found = false;
-        while (startDate.isBefore(endDate.plusDays(1)) && !found) {
-            if (startDate.getDayOfMonth() == mSelectedDay) {
-                selectedDate = startDate;
-                found = true;
-            }
-
-            //Next day
-            startDate = startDate.plusDays(1);
-        }
-        return selectedDate;
+        return mSelectedIndex >= 0 ? toDateTime(mModel.getStartEpochDay() + mSelectedIndex) : null;
     }
 
     public interface DayViewOnClickListener {
         void onDaySelected(DateTime date);
     }
 
-    //Day View
-    DayView mSelectedDayView;
+    //Metrics, only measured while a listener is attached
+    MetricsListener mMetricsListener;
+    int mInflatedCellCount;
+    int mRecycledCellCount;
+    boolean mRendering;
+    public void setMetricsListener(MetricsListener listener) {
+        mMetricsListener = listener;
+    }
+
+    /**
+     * Costs of rendering and interaction, called on the main thread. Durations are in nanoseconds.
+     */
+    public interface MetricsListener {
+        /**
+         * A full render of the range and the cells it inflated or took from the recycled ones
+         */
+        void onRender(long durationNanos, int inflatedCells, int recycledCells);
+
+        /**
+         * Cells bound while scrolling in the virtualized render mode
+         */
+        void onCellsBound(long durationNanos, int inflatedCells, int recycledCells);
+
+        /**
+         * A whole day model build: sorting the disabled dates, packing the date fields of every
+         * day in the window and looking each one up in the disabled dates and rules. Measured on
+         * the thread that built the model.
+         */
+        void onModelBuilt(long durationNanos, int disabledCount, int dayCount);
+
+        /**
+         * From a selection change to the cells restyled and the listeners notified
+         */
+        void onSelectionChanged(long latencyNanos);
+
+        void onStateSaved(int bytes);
+    }
+
+    DayRangeSelectionListener mRangeListener;
+    public void setDayRangeSelectionListener(DayRangeSelectionListener listener) {
+        mRangeListener = listener;
+    }
+
+    /**
+     * Last day of the selected range, null while only its first day is chosen
+     */
+    public DateTime getSelectedEndDate() {
+        return mSelectedEndIndex >= 0 ? toDateTime(mModel.getStartEpochDay() + mSelectedEndIndex) : null;
+    }
+
+    /**
+     * Called in range selection mode once both ends of a range without unavailable days are chosen
+     */
+    public interface DayRangeSelectionListener {
+        void onDayRangeSelected(DateTime startDate, DateTime endDate);
+    }
+
+    //Availability
+    AvailabilityLoader mAvailabilityLoader;
+
+    /**
+     * Supplies availability for the days about to be shown, a batch at a time
+     */
+    public interface AvailabilityProvider {
+        /**
+         * Called on the main thread. The callback may be called from any thread.
+         */
+        void loadAvailability(DateTime firstDay, int dayCount, AvailabilityCallback callback);
+    }
+
+    public interface AvailabilityCallback {
+        void onAvailabilityLoaded(List<DateTime> unavailableDates);
+    }
+
+    //Day metadata, by index from the start of the range
+    final DayMetadata mDayMetadata = new DayMetadata();
+    DayBadgeFormatter mBadgeFormatter = DEFAULT_BADGE_FORMATTER;
+
+    /**
+     * Text of the badge shown under a day, from the day's metadata
+     */
+    public interface DayBadgeFormatter {
+        /**
+         * Null leaves the day without a badge. The value is {@link DayMetadata#NO_VALUE} when
+         * only a status was set.
+         */
+        String formatBadge(int value, byte status);
+    }
+
+    static final DayBadgeFormatter DEFAULT_BADGE_FORMATTER = new DayBadgeFormatter() {
+        @Override
+        public String formatBadge(int value, byte status) {
+            return value != DayMetadata.NO_VALUE ? Integer.toString(value) : null;
+        }
+    };
 
 
     /**
      * Controls
      */
     Space mLeftSpace;
-    LinearLayout mDaysContainer;
+    FrameLayout mDaysFrame;
+    DaysLayout mDaysContainer;
     Space mRightSpace;
 
 
@@ -116,305 +337,1984 @@ public class Ranger extends HorizontalScrollView implements View.OnClickListener
     }
 
     /**
-     * Initialization
+     * Initialization
+     */
+    public void init(Context context, AttributeSet attributeSet) {
+        mContext = context;
+
+        //Time zones are only needed when handing out dates, load them off the main thread
+        if (!isInEditMode()) {
+            TimeZoneLoader.loadInBackground(context);
+            MemoryTrimmer.register(this);
+        }
+
+        //Inflate view
+        View view = LayoutInflater.from(mContext).inflate(WIDGET_LAYOUT_RES_ID, this, true);
+
+        //Get controls
+        mDaysFrame = (FrameLayout) view.findViewById(R.id.days_frame);
+        mDaysContainer = (DaysLayout) view.findViewById(DAYS_CONTAINER_RES_ID);
+        mHighlight = new SelectionHighlight(view.findViewById(R.id.selected_range_highlight),
+                view.findViewById(R.id.selected_day_highlight), view.findViewById(R.id.selected_end_day_highlight));
+
+        //Get custom attributes
+        mDisplayDayOfWeek = true;
+        if(attributeSet != null) {
+            TypedArray a = mContext.getTheme().obtainStyledAttributes(attributeSet, R.styleable.Ranger, 0, 0);
+
+            try {
+
+                //Colors
+                mDayTextColor = a.getColor(R.styleable.Ranger_dayTextColor, getColor(R.color.default_day_text_color));
+                mDayUnavailableTextColor = a.getColor(R.styleable.Ranger_dayUnavailableTextColor, getColor(R.color.default_unavailable_day_text_color));
+                mSelectedDayTextColor = a.getColor(R.styleable.Ranger_selectedDayTextColor, getColor(R.color.default_selected_day_text_color));
+
+                mDaysContainerBackgroundColor = a.getColor(R.styleable.Ranger_daysContainerBackgroundColor, getColor(R.color.default_days_container_background_color));
+                mSelectedDayBackgroundColor = a.getColor(R.styleable.Ranger_selectedDayBackgroundColor, getColor(R.color.default_selected_day_background_color));
+                mDayPlaceholderTextColor = a.getColor(R.styleable.Ranger_dayPlaceholderTextColor, getColor(R.color.default_placeholder_day_text_color));
+                mSelectedRangeBackgroundColor = a.getColor(R.styleable.Ranger_selectedRangeBackgroundColor, getColor(R.color.default_selected_range_background_color));
+                mBadgeTextColor = a.getColor(R.styleable.Ranger_badgeTextColor, getColor(R.color.default_badge_text_color));
+
+                //Labels
+                mAlwaysDisplayMonth = a.getBoolean(R.styleable.Ranger_alwaysDisplayMonth, false);
+                mDisplayDayOfWeek = a.getBoolean(R.styleable.Ranger_displayDayOfWeek, true);
+
+                //Rendering
+                mRenderMode = a.getInt(R.styleable.Ranger_renderMode, RENDER_MODE_INFLATED);
+                mFixedCellWidth = a.getBoolean(R.styleable.Ranger_fixedCellWidth, false);
+                mRetentionPolicy = a.getInt(R.styleable.Ranger_retentionPolicy, RETENTION_TRIM);
+
+                //Selection
+                mSelectionMode = a.getInt(R.styleable.Ranger_selectionMode, SELECTION_MODE_SINGLE);
+                mSelectionHighlight = a.getInt(R.styleable.Ranger_selectionHighlight, SELECTION_HIGHLIGHT_CELL);
+
+            } finally {
+                a.recycle();
+            }
+        }
+
+        //Setup styling
+        //Days Container
+        mHighlightDuration = getResources().getInteger(android.R.integer.config_shortAnimTime);
+        setupDaysContainerBackground();
+    }
+
+    /***
+     * State modification
+     */
+    public void setStartAndEndDateWithParts(int startYear, int startMonth, int startDay, int endYear, int endMonth, int endDay) {
+        checkNotShared();
+
+        //Start of start day to end of end day in the default zone
+        setRange(EpochDays.of(startYear, startMonth, startDay), EpochDays.of(endYear, endMonth, endDay), true);
+        mZone = null;
+        mZoneId = null;
+        mStartMillisOfDay = 0;
+
+        //Set Selection. Default is today.
+        requestModel(mStartEpochDay);
+    }
+
+    public void setStartAndEndDateWithDisabledDates(DateTime startDate, DateTime endDate, List<DateTime> disabledDates) {
+        checkNotShared();
+        setRange(startDate, endDate);
+        mDisabledEpochDays = toEpochDays(disabledDates);
+        mDisabledDays = null;
+
+        requestModel(SELECT_FIRST_ENABLED);
+    }
+
+    /**
+     * Shows every day from the start date on. The range grows while scrolling towards its end
+     * and only the days around the viewport are kept, see {@link #setPagingWindow(int, int)}.
+     * Needs the virtualized or canvas render mode.
+     */
+    public void setOpenEndedRange(DateTime startDate) {
+        if (mRenderMode == RENDER_MODE_INFLATED)
+            throw new IllegalStateException("Open ended ranges need the virtualized or canvas render mode");
+        checkNotShared();
+
+        setOpenEndedRangeFrom(startDate);
+        requestModel(SELECT_FIRST_ENABLED);
+    }
+
+    private void setOpenEndedRangeFrom(DateTime startDate) {
+        clearMetadataIfMoved(toEpochDay(startDate));
+        mHasRange = true;
+        mOpenEnded = true;
+        mStartEpochDay = toEpochDay(startDate);
+        mEndEpochDay = DayModel.OPEN_END;
+        mDayCount = mPagingWindowDays;
+        mStartMillisOfDay = startDate.getMillisOfDay();
+        mZone = startDate.getZone();
+        mZoneId = null;
+    }
+
+    /**
+     * Days kept around the viewport of open ended ranges and how close the viewport may get to
+     * their edges before they move. The window should cover the viewport plus twice the prefetch distance.
+     */
+    public void setPagingWindow(int windowDays, int prefetchDays) {
+        if (prefetchDays < 0 || windowDays <= 2 * prefetchDays)
+            throw new IllegalArgumentException("Paging window must be larger than twice the prefetch distance");
+
+        mPagingWindowDays = windowDays;
+        mPagingPrefetchDays = prefetchDays;
+        if (mOpenEnded)
+            requestModel(SELECT_KEEP);
+    }
+
+    private void setRange(DateTime startDate, DateTime endDate) {
+        //Days starting before the end instant
+        mStartMillisOfDay = startDate.getMillisOfDay();
+        setRange(toEpochDay(startDate), toEpochDay(endDate), endDate.getMillisOfDay() > mStartMillisOfDay);
+        mZone = startDate.getZone();
+        mZoneId = null;
+    }
+
+    private void setRange(int startEpochDay, int endEpochDay, boolean includeEndDay) {
+        clearMetadataIfMoved(startEpochDay);
+        mHasRange = true;
+        mOpenEnded = false;
+        mStartEpochDay = startEpochDay;
+        mEndEpochDay = endEpochDay;
+        mDayCount = Math.max(0, endEpochDay - startEpochDay + (includeEndDay ? 1 : 0));
+    }
+
+    boolean isDayDisabled(int index) {
+        return getDayState(index) != AvailabilityLoader.AVAILABLE;
+    }
+
+    /**
+     * Disabled days are unavailable, days whose availability batch is still loading are pending
+     */
+    int getDayState(int index) {
+        if (mModel == null || mModel.isDisabled(index))
+            return AvailabilityLoader.UNAVAILABLE;
+        return mAvailabilityLoader != null ? mAvailabilityLoader.getState(mModel.getStartEpochDay() + index) : AvailabilityLoader.AVAILABLE;
+    }
+
+    int getDayTextColor(int index) {
+        switch (getDayState(index)) {
+            case AvailabilityLoader.UNAVAILABLE:
+                return mDayUnavailableTextColor;
+            case AvailabilityLoader.PENDING:
+                return mDayPlaceholderTextColor;
+            default:
+                return mDayTextColor;
+        }
+    }
+
+    /**
+     * Queries the provider for the days being shown, on top of the disabled dates. Days show a
+     * placeholder style and can't be selected until their batch arrives. Null removes the provider.
+     */
+    public void setAvailabilityProvider(AvailabilityProvider provider) {
+        if (mAvailabilityLoader != null)
+            mAvailabilityLoader.release();
+        mAvailabilityLoader = provider != null ? new AvailabilityLoader(this, provider) : null;
+
+        rebindDayStates();
+
+        //A selection waiting for the previous provider asks this one
+        if (mSelectionAwaitsAvailability && mModel != null)
+            selectFirstAvailableDay(mAwaitingSelectionNotifies);
+    }
+
+    /**
+     * Drops cached availability and asks the provider again for the days being shown
+     */
+    public void invalidateAvailability() {
+        if (mAvailabilityLoader != null)
+            setAvailabilityProvider(mAvailabilityLoader.mProvider);
+    }
+
+    void onAvailabilityLoaded(int firstEpochDay, int dayCount) {
+        if (mModel == null) {
+            return;
+        }
+
+        for (int day = firstEpochDay; day < firstEpochDay + dayCount; day++) {
+            DayView dayView = findDayView(day - mModel.getStartEpochDay());
+            if (dayView != null)
+                bindDayState(dayView);
+        }
+        if (mRenderMode == RENDER_MODE_CANVAS && mDayStripView != null)
+            mDayStripView.invalidate();
+
+        //Pick the selection waiting for availability, or move it off days the batch reports unavailable
+        if (mSelectionAwaitsAvailability) {
+            selectFirstAvailableDay(mAwaitingSelectionNotifies);
+            return;
+        }
+        int fromIndex = Math.max(mSelectedIndex, firstEpochDay - mModel.getStartEpochDay());
+        int toIndex = Math.min(getLastSelectedIndex(), firstEpochDay + dayCount - 1 - mModel.getStartEpochDay());
+        if (mSelectedIndex < 0 || fromIndex > toIndex) {
+            return;
+        }
+        if (getDayState(mSelectedIndex) == AvailabilityLoader.UNAVAILABLE) {
+            selectFirstAvailableDay(false);
+        } else if (mSelectedEndIndex >= 0 && hasUnavailableDay(fromIndex, toIndex)) {
+            setSelection(mSelectedIndex, -1, false);
+        }
+    }
+
+    private void rebindDayStates() {
+        for (int i = 0; i < mDaysContainer.getChildCount(); i++) {
+            Object tag = mDaysContainer.getChildAt(i).getTag();
+            if (tag instanceof DayView)
+                bindDayState((DayView) tag);
+        }
+        if (mRenderMode == RENDER_MODE_CANVAS && mDayStripView != null)
+            mDayStripView.invalidate();
+    }
+
+    /**
+     * Replaces disabled dates restyling only the cells whose state changed.
+     * Scroll position and a still enabled selection are kept.
+     */
+    public void setDisabledDates(List<DateTime> disabledDates) {
+        checkNotShared();
+        mDisabledEpochDays = toEpochDays(disabledDates);
+        mDisabledDays = null;
+
+        if (!mHasRange) {
+            return;
+        }
+
+        requestModel(SELECT_KEEP);
+    }
+
+    /**
+     * Cell pool
+     */
+    /**
+     * Takes cells from and gives them back to the pool, which can be shared with other Rangers.
+     * Null goes back to a pool of its own.
+     */
+    public void setDayViewPool(DayViewPool pool) {
+        mDayViewPool = pool != null ? pool : new DayViewPool();
+        mOwnsDayViewPool = pool == null;
+    }
+
+    public DayViewPool getDayViewPool() {
+        return mDayViewPool;
+    }
+
+    /**
+     * Gives every cell back to the pool, for example when a list row is recycled. Nothing is shown
+     * until the next range is set or {@link #rebind(DateTime, DateTime, List)} is called.
+     */
+    public void releaseDayViews() {
+        cancelFlingPrefetch();
+        //Releasing removes the cell from the container, walk back from the end
+        for (int i = mDaysContainer.getChildCount() - 1; i >= 0; i--) {
+            Object tag = mDaysContainer.getChildAt(i).getTag();
+            if (tag instanceof DayView)
+                recycleDayView((DayView) tag);
+        }
+        mDaysContainer.removeAllViews();
+        mBoundDayViews.clear();
+        mLeftSpace = null;
+        mRightSpace = null;
+    }
+
+    /**
+     * Switches a recycled Ranger to a new range and disabled dates, scrolled to its start. Cells
+     * are bound from the pool. Ranges small enough to build on the main thread are shown before
+     * returning, larger ones once their day model is built in the background, with an empty strip
+     * and no selection until then.
+     */
+    public void rebind(DateTime startDate, DateTime endDate, List<DateTime> disabledDates) {
+        checkNotShared();
+        setRange(startDate, endDate);
+        mDisabledEpochDays = toEpochDays(disabledDates);
+        mDisabledDays = null;
+
+        //Scroll while nothing is bound, so the old range isn't bound at the new position
+        releaseDayViews();
+        setSelectedIndex(-1, false);
+        mPendingScrollDay = DisabledDays.NO_DAY;
+        scrollTo(0, 0);
+
+        //Same size limit as any other change, a large range must not stall a list bind
+        requestModel(SELECT_FIRST_ENABLED);
+    }
+
+    /**
+     * Batch updates
+     */
+    /**
+     * Starts a batch of changes applied together: validated once, shown with a single render and
+     * reported with at most one listener call.
+     */
+    public Editor edit() {
+        return new Editor();
+    }
+
+    public final class Editor {
+
+        DateTime mRangeStart;
+        DateTime mRangeEnd;
+        boolean mRangeSet;
+        List<DateTime> mDisabledDates;
+        boolean mDisabledSet;
+        DisabledDateRules mDateRules;
+        boolean mDateRulesSet;
+        DateTime mSelectionStart;
+        DateTime mSelectionEnd;
+        boolean mSelectionSet;
+        boolean mNotifyListeners;
+
+        Editor() {
+        }
+
+        public Editor range(DateTime startDate, DateTime endDate) {
+            mRangeStart = startDate;
+            mRangeEnd = endDate;
+            mRangeSet = true;
+            return this;
+        }
+
+        /**
+         * See {@link #setOpenEndedRange(DateTime)}
+         */
+        public Editor openEndedRange(DateTime startDate) {
+            return range(startDate, null);
+        }
+
+        public Editor disabled(List<DateTime> disabledDates) {
+            mDisabledDates = disabledDates;
+            mDisabledSet = true;
+            return this;
+        }
+
+        /**
+         * See {@link #setDisabledDateRules(DisabledDateRules)}
+         */
+        public Editor disabledRules(DisabledDateRules rules) {
+            mDateRules = rules;
+            mDateRulesSet = true;
+            return this;
+        }
+
+        /**
+         * Selects a single day, null clears the selection. Without a selection a new range selects
+         * its first enabled day and the selection is kept otherwise.
+         */
+        public Editor select(DateTime date) {
+            return select(date, null);
+        }
+
+        /**
+         * Selects the days from startDate to endDate
+         */
+        public Editor select(DateTime startDate, DateTime endDate) {
+            mSelectionStart = startDate;
+            mSelectionEnd = endDate;
+            mSelectionSet = true;
+            return this;
+        }
+
+        public Editor notifyListeners(boolean notifyListeners) {
+            mNotifyListeners = notifyListeners;
+            return this;
+        }
+
+        /**
+         * Validates every change before applying any of them
+         *
+         * @throws IllegalArgumentException when a range or the selection is invalid, the selection
+         *                                  includes an unavailable day or selects a range outside
+         *                                  of {@link #SELECTION_MODE_RANGE}
+         * @throws IllegalStateException    when a change doesn't fit the Ranger or comes from its
+         *                                  shared calendar
+         */
+        public void apply() {
+            if (mRangeSet || mDisabledSet || mDateRulesSet)
+                checkNotShared();
+            boolean openEnded = mRangeSet && mRangeEnd == null;
+
+            //Range the selection has to fit in
+            int startEpochDay = mStartEpochDay;
+            int dayCount = mOpenEnded ? Integer.MAX_VALUE : mDayCount;
+            if (mRangeSet) {
+                if (mRangeStart == null)
+                    throw new IllegalArgumentException("Range needs a start date");
+                if (openEnded && mRenderMode == RENDER_MODE_INFLATED)
+                    throw new IllegalStateException("Open ended ranges need the virtualized or canvas render mode");
+                if (!openEnded && mRangeEnd.isBefore(mRangeStart))
+                    throw new IllegalArgumentException("Range can't end before it starts");
+
+                startEpochDay = toEpochDay(mRangeStart);
+                dayCount = openEnded ? Integer.MAX_VALUE : Math.max(0, toEpochDay(mRangeEnd) - startEpochDay
+                        + (mRangeEnd.getMillisOfDay() > mRangeStart.getMillisOfDay() ? 1 : 0));
+            }
+
+            //Disabled days after the edit, converted once for validation and the model
+            int[] disabledEpochDays = mDisabledSet ? toEpochDays(mDisabledDates) : mDisabledEpochDays;
+            DisabledDays disabledDays = mDisabledSet ? null : mDisabledDays;
+            DayRules disabledRules = mDisabledRules;
+            if (mDateRulesSet)
+                disabledRules = mDateRules != null ? mDateRules.getDayRules() : DayRules.NONE;
+
+            int selection = mRangeSet ? SELECT_FIRST_ENABLED : SELECT_KEEP;
+            int selectionEnd = DisabledDays.NO_DAY;
+            if (mSelectionSet && mSelectionStart != null) {
+                if (!mRangeSet && !mHasRange)
+                    throw new IllegalStateException("Selection needs a range");
+
+                selection = toEpochDay(mSelectionStart);
+                if (selection - startEpochDay < 0 || selection - startEpochDay >= dayCount)
+                    throw new IllegalArgumentException("Selection is outside of the range");
+                if (mSelectionEnd != null) {
+                    selectionEnd = toEpochDay(mSelectionEnd);
+                    if (selectionEnd <= selection || selectionEnd - startEpochDay >= dayCount)
+                        throw new IllegalArgumentException("Selection must end after it starts and within the range");
+                    if (mSelectionMode != SELECTION_MODE_RANGE)
+                        throw new IllegalArgumentException("Selecting a range needs the range selection mode");
+                }
+
+                //Same days a tap can't select, against the disabled days being applied
+                if (disabledDays == null)
+                    disabledDays = DisabledDays.of(disabledEpochDays, disabledEpochDays.length);
+                int lastDay = selectionEnd != DisabledDays.NO_DAY ? selectionEnd : selection;
+                if (disabledDays.containsAny(selection, lastDay) || disabledRules.containsAny(selection, lastDay)
+                        || (mAvailabilityLoader != null && mAvailabilityLoader.hasUnavailableDay(selection, lastDay)))
+                    throw new IllegalArgumentException("Selection includes an unavailable day");
+            } else if (mSelectionSet) {
+                selection = DisabledDays.NO_DAY;
+            }
+
+            //Selection alone needs no model
+            if (!mRangeSet && !mDisabledSet && !mDateRulesSet) {
+                if (mSelectionSet)
+                    applySelection(selection, selectionEnd);
+                return;
+            }
+
+            //Apply
+            if (openEnded) {
+                setOpenEndedRangeFrom(mRangeStart);
+            } else if (mRangeSet) {
+                setRange(mRangeStart, mRangeEnd);
+            }
+            if (mDisabledSet) {
+                mDisabledEpochDays = disabledEpochDays;
+                //Sorted for validation already, the model reuses it
+                mDisabledDays = disabledDays;
+            }
+            mDisabledRules = disabledRules;
+            if (!mHasRange) {
+                return;
+            }
+
+            //Open ended ranges grow to the selection
+            int lastSelected = Math.max(selection, selectionEnd);
+            if (mOpenEnded && mSelectionSet && lastSelected - mStartEpochDay >= mDayCount)
+                mDayCount = lastSelected - mStartEpochDay + mPagingWindowDays;
+
+            mPendingSelectionNotifies |= mNotifyListeners;
+            requestModel(selection, selectionEnd);
+        }
+
+        private void applySelection(int selection, int selectionEnd) {
+            //Applied once the model being built is committed
+            if (mModelTask != null) {
+                mPendingSelection = selection;
+                mPendingSelectionEnd = selectionEnd;
+                mPendingSelectionNotifies |= mNotifyListeners;
+                return;
+            }
+            if (mModel == null) {
+                return;
+            }
+
+            int start = mModel.getStartEpochDay();
+            setSelection(selection != DisabledDays.NO_DAY ? selection - start : -1,
+                    selectionEnd != DisabledDays.NO_DAY ? selectionEnd - start : -1, mNotifyListeners);
+        }
+    }
+
+    /**
+     * Disables the dates matching the rules on top of the disabled dates list. Rules stay compact
+     * however long the range is, null removes them.
+     */
+    public void setDisabledDateRules(DisabledDateRules rules) {
+        checkNotShared();
+        mDisabledRules = rules != null ? rules.getDayRules() : DayRules.NONE;
+
+        if (!mHasRange) {
+            return;
+        }
+
+        requestModel(SELECT_KEEP);
+    }
+
+    /**
+     * Day metadata
+     */
+    /**
+     * Sets values, such as prices or remaining capacities, and statuses for consecutive days from
+     * firstDate. Either array may be null to leave it as it is. Only bound cells whose metadata
+     * changed are rebound. Metadata is kept by day from the start of the range and dropped when
+     * the start changes.
+     */
+    public void updateDayMetadata(DateTime firstDate, int[] values, byte[] statuses) {
+        if (!mHasRange)
+            throw new IllegalStateException("Metadata needs a range");
+        if (values != null && statuses != null && values.length != statuses.length)
+            throw new IllegalArgumentException("Values and statuses must cover the same days");
+
+        boolean hadMetadata = !mDayMetadata.isEmpty();
+        int count = values != null ? values.length : statuses != null ? statuses.length : 0;
+        int[] changedIndexes = mDayMetadata.update(toEpochDay(firstDate) - mStartEpochDay, values, statuses, count);
+
+        //First metadata adds a badge row to every cell
+        if (!hadMetadata && !mDayMetadata.isEmpty()) {
+            rebindBadges();
+            return;
+        }
+
+        boolean canvas = mRenderMode == RENDER_MODE_CANVAS && mDayStripView != null;
+        for (int index : changedIndexes) {
+            DayView dayView = findDayView(index);
+            if (dayView != null)
+                bindBadge(dayView);
+            if (canvas)
+                mDayStripView.bindBadge(index);
+        }
+        if (changedIndexes.length > 0 && canvas)
+            mDayStripView.invalidate();
+    }
+
+    public void clearDayMetadata() {
+        if (!mDayMetadata.isEmpty()) {
+            mDayMetadata.clear();
+            rebindBadges();
+        }
+    }
+
+    /**
+     * Value set for the date, {@link DayMetadata#NO_VALUE} if none
+     */
+    public int getDayValue(DateTime date) {
+        return mHasRange ? mDayMetadata.getValue(toEpochDay(date) - mStartEpochDay) : DayMetadata.NO_VALUE;
+    }
+
+    /**
+     * Status set for the date, {@link DayMetadata#NO_STATUS} if none
+     */
+    public byte getDayStatus(DateTime date) {
+        return mHasRange ? mDayMetadata.getStatus(toEpochDay(date) - mStartEpochDay) : DayMetadata.NO_STATUS;
+    }
+
+    /**
+     * Turns day metadata into badge text. Null goes back to showing values as numbers.
+     */
+    public void setDayBadgeFormatter(DayBadgeFormatter formatter) {
+        mBadgeFormatter = formatter != null ? formatter : DEFAULT_BADGE_FORMATTER;
+        rebindBadges();
+    }
+
+    private void clearMetadataIfMoved(int startEpochDay) {
+        if (mHasRange && startEpochDay != mStartEpochDay)
+            mDayMetadata.clear();
+    }
+
+    /**
+     * Badge text of the day, null if it has none
+     */
+    String getBadgeText(int index) {
+        return mBadgeFormatter.formatBadge(mDayMetadata.getValue(index), mDayMetadata.getStatus(index));
+    }
+
+    private void bindBadge(DayView dayView) {
+        if (mDayMetadata.isEmpty()) {
+            dayView.hideBadge();
+        } else {
+            dayView.setBadge(getBadgeText(dayView.getIndex()));
+        }
+    }
+
+    private void rebindBadges() {
+        for (int i = 0; i < mDaysContainer.getChildCount(); i++) {
+            Object tag = mDaysContainer.getChildAt(i).getTag();
+            if (tag instanceof DayView)
+                bindBadge((DayView) tag);
+        }
+        if (mRenderMode == RENDER_MODE_CANVAS && mDayStripView != null && mModel != null) {
+            mDayStripView.setup();
+            mDayStripView.setViewport(getScrollX(), getViewportWidth());
+        }
+    }
+
+    /**
+     * Memory
+     */
+    /**
+     * When cells and derived indexes are given back. {@link #RETENTION_KEEP} never does,
+     * {@link #RETENTION_TRIM} does under memory pressure while detached and
+     * {@link #RETENTION_DETACH} also on every detach. Released Rangers render again once attached,
+     * keeping their range, selection and scroll position.
+     */
+    public void setRetentionPolicy(int retentionPolicy) {
+        mRetentionPolicy = retentionPolicy;
+    }
+
+    public int getRetentionPolicy() {
+        return mRetentionPolicy;
+    }
+
+    /**
+     * Called by {@link MemoryTrimmer}. Detached Rangers release everything, shown ones only the
+     * cells they are not showing. A pool set with {@link #setDayViewPool(DayViewPool)} is left alone.
+     */
+    void onTrimMemory(int level) {
+        if (mRetentionPolicy == RETENTION_KEEP) {
+            return;
+        }
+
+        if (getWindowToken() == null) {
+            releaseResources();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            cancelFlingPrefetch();
+        }
+        //A shared pool feeds other Rangers, its owner decides when to clear it
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW && mOwnsDayViewPool)
+            mDayViewPool.clear();
+    }
+
+    /**
+     * Gives back cells, the canvas strip, cached availability and the packed days. The unpacked
+     * model still answers every query, so dates and selection keep working while released.
+     */
+    private void releaseResources() {
+        //A build in flight renders anyway
+        if (mResourcesReleased || mModel == null || mModelTask != null) {
+            return;
+        }
+
+        //Day at the center of the viewport, scrolled to once rendered again
+        int cellWidth = getCellWidth();
+        mReleasedScrollDay = DisabledDays.NO_DAY;
+        if (cellWidth > 0 && mModel.getDayCount() > 0) {
+            mReleasedScrollDay = mModel.getStartEpochDay() + Math.min(mModel.getDayCount() - 1, (getScrollX() + getViewportWidth() / 2) / cellWidth);
+        } else if (mSelectedIndex >= 0) {
+            mReleasedScrollDay = mModel.getStartEpochDay() + mSelectedIndex;
+        }
+
+        releaseDayViews();
+        if (mOwnsDayViewPool)
+            mDayViewPool.clear();
+        mDayStripView = null;
+        mHighlight.clear();
+        if (mAvailabilityLoader != null)
+            mAvailabilityLoader.trim();
+
+        //The model keeps the disabled days sorted, the list they came from isn't needed
+        mModel = mModel.unpacked();
+        if (mDisabledDays != null && mSharedCalendar == null)
+            mDisabledEpochDays = new int[0];
+        mResourcesReleased = true;
+    }
+
+    private void restoreResources() {
+        if (mPendingScrollDay == DisabledDays.NO_DAY) {
+            mPendingScrollDay = mReleasedScrollDay;
+            mPendingScrollSmooth = false;
+        }
+
+        //Rangers on a calendar take its model instead of building their own
+        if (mSharedCalendar != null && mSharedCalendar.mModel != null && mSharedCalendar.mModelTask == null) {
+            applySharedModel(mSharedCalendar, mSharedCalendar.mModel);
+        } else {
+            requestModel(SELECT_KEEP);
+        }
+    }
+
+    /**
+     * Shared calendar
+     */
+    /**
+     * Shows the range and disabled dates of the calendar, built once for every Ranger attached to
+     * it. The selection stays this Ranger's own. While attached, range and disabled dates are set
+     * on the calendar, setting them here throws. Null detaches, keeping the days shown. The
+     * calendar only holds this Ranger weakly, see {@link SharedCalendar}.
+     */
+    public void setSharedCalendar(SharedCalendar calendar) {
+        if (mSharedCalendar == calendar)
+            return;
+
+        if (mSharedCalendar != null)
+            mSharedCalendar.detach(this);
+        mSharedCalendar = calendar;
+        if (calendar != null)
+            calendar.attach(this);
+    }
+
+    public SharedCalendar getSharedCalendar() {
+        return mSharedCalendar;
+    }
+
+    private void checkNotShared() {
+        if (mSharedCalendar != null)
+            throw new IllegalStateException("Range and disabled dates are set on the shared calendar");
+    }
+
+    /**
+     * Shows a model published by the shared calendar, referencing its arrays instead of copying
+     */
+    void applySharedModel(SharedCalendar calendar, DayModel model) {
+        setRange(calendar.mStartEpochDay, calendar.mEndEpochDay, false);
+        mDayCount = calendar.mDayCount;
+        mStartMillisOfDay = calendar.mStartMillisOfDay;
+        mZone = calendar.mZone;
+        mZoneId = null;
+        mDisabledEpochDays = calendar.mDisabledEpochDays;
+        mDisabledRules = calendar.mDisabledRules;
+
+        //Keep the selection while the days stay the same
+        cancelModelTask();
+        mPendingSelection = model.hasSameDays(mModel) ? SELECT_KEEP : SELECT_FIRST_ENABLED;
+        mPendingSelectionEnd = DisabledDays.NO_DAY;
+        commitModel(model, -1);
+    }
+
+    private static int[] toEpochDays(List<DateTime> dates) {
+        TimeZoneLoader.await();
+        int[] days = new int[dates != null ? dates.size() : 0];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = toEpochDay(dates.get(i));
+        }
+        return days;
+    }
+
+    /**
+     * Day model
+     */
+    private void requestModel(int selection) {
+        requestModel(selection, DisabledDays.NO_DAY);
+    }
+
+    /**
+     * Builds a model for the current range and disabled dates, then selects from the selection
+     * epoch day to the selection end or applies one of the selection sentinels
+     */
+    private void requestModel(int selection, int selectionEnd) {
+        //A newer request supersedes the pending one but not its selection
+        if (selection == SELECT_KEEP && mModelTask != null) {
+            selection = mPendingSelection;
+        } else if (selection != SELECT_KEEP) {
+            mPendingSelectionEnd = selectionEnd;
+        }
+        mPendingSelection = selection;
+        cancelModelTask();
+
+        final int generation = mModelGeneration;
+        final int startEpochDay = mStartEpochDay;
+        final int endEpochDay = mEndEpochDay;
+        final int dayCount = mDayCount;
+        final int[] disabledEpochDays = mDisabledEpochDays;
+        final DisabledDays disabledDays = mDisabledDays;
+        final DayRules disabledRules = mDisabledRules;
+        final DayModel previous = mModel;
+        final int windowFirstIndex = mOpenEnded ? getPagingWindowFirstIndex() : 0;
+        final int windowCount = mOpenEnded ? mPagingWindowDays : dayCount;
+
+        final boolean measure = mMetricsListener != null;
+
+        //Small ranges cost less than a trip to the executor
+        if (windowCount + (disabledDays == null ? disabledEpochDays.length : 0) <= SYNCHRONOUS_MODEL_SIZE) {
+            long startNanos = measure ? System.nanoTime() : 0;
+            DayModel model = buildModel(previous, startEpochDay, endEpochDay, dayCount, disabledEpochDays, disabledDays, disabledRules, windowFirstIndex, windowCount);
+            commitModel(model, measure ? System.nanoTime() - startNanos : -1);
+            return;
+        }
+
+        mModelTask = MODEL_EXECUTOR.submit(new Runnable() {
+            @Override
+            public void run() {
+                long startNanos = measure ? System.nanoTime() : 0;
+                final DayModel model = buildModel(previous, startEpochDay, endEpochDay, dayCount, disabledEpochDays, disabledDays, disabledRules, windowFirstIndex, windowCount);
+                if (model == null) {
+                    return;
+                }
+                final long buildNanos = measure ? System.nanoTime() - startNanos : -1;
+
+                MAIN_HANDLER.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        //Drop models superseded while posting
+                        if (generation == mModelGeneration) {
+                            mModelTask = null;
+                            commitModel(model, buildNanos);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Builds the model, or derives it from the previous one when only the disabled dates changed,
+     * flipping the days that changed instead of packing the whole window again
+     */
+    static DayModel buildModel(DayModel previous, int startEpochDay, int endEpochDay, int dayCount, int[] disabledEpochDays,
+                               DisabledDays disabledDays, DayRules disabledRules, int windowFirstIndex, int windowCount) {
+        if (disabledDays == null)
+            disabledDays = DisabledDays.of(disabledEpochDays, disabledEpochDays.length);
+        if (previous != null && previous.packsSameDays(startEpochDay, endEpochDay, dayCount, disabledRules, windowFirstIndex, windowCount))
+            return previous.withDisabledDays(disabledDays);
+        return DayModel.build(startEpochDay, endEpochDay, dayCount, disabledDays, disabledRules, windowFirstIndex, windowCount);
+    }
+
+    private void cancelModelTask() {
+        mModelGeneration++;
+        if (mModelTask != null) {
+            mModelTask.cancel(true);
+            mModelTask = null;
+        }
+    }
+
+    /**
+     * Displays a built model. Only cells whose disabled state changed are restyled when the
+     * range is the same, then the pending selection is applied.
+     */
+    private void commitModel(DayModel model, long buildNanos) {
+        if (mMetricsListener != null && buildNanos >= 0)
+            mMetricsListener.onModelBuilt(buildNanos, model.getDisabledDays().size(), model.getWindowCount());
+
+        DayModel previous = mModel;
+        mModel = model;
+        mDisabledDays = model.getDisabledDays();
+
+        //Inflated cells can't follow a change in length, released cells need a render
+        boolean sameDayCount = previous != null && previous.getDayCount() == model.getDayCount();
+        boolean rendered = mDaysContainer.getChildCount() > 0;
+        if (rendered && model.hasSameDays(previous) && (sameDayCount || mRenderMode != RENDER_MODE_INFLATED)) {
+            //Restyle changed days, unbound ones pick up their state when bound. Rules can change any day
+            if (previous.getDisabledRules() != model.getDisabledRules()) {
+                rebindDayStates();
+            } else if (previous.getDisabledDays() != model.getDisabledDays()) {
+                int lastDay = model.getStartEpochDay() + Math.min(previous.getDayCount(), model.getDayCount()) - 1;
+                int[] changedDays = previous.getDisabledDays().changedDays(model.getDisabledDays(), model.getStartEpochDay(), lastDay);
+                for (int day : changedDays) {
+                    DayView dayView = findDayView(day - model.getStartEpochDay());
+                    if (dayView != null) {
+                        bindDayState(dayView);
+                    }
+                }
+                if (changedDays.length > 0 && mRenderMode == RENDER_MODE_CANVAS) {
+                    mDayStripView.invalidate();
+                }
+            }
+
+            //Grow or shrink the content
+            if (!sameDayCount) {
+                if (mRenderMode == RENDER_MODE_VIRTUALIZED) {
+                    updateVirtualizedWindow();
+                } else if (mDayStripView != null) {
+                    mDayStripView.setup();
+                    mDayStripView.setViewport(getScrollX(), getViewportWidth());
+                }
+            }
+        } else {
+            render();
+        }
+
+        boolean notifyListeners = mPendingSelectionNotifies;
+        mPendingSelectionNotifies = false;
+        int selectionEnd = mPendingSelectionEnd;
+        mPendingSelectionEnd = DisabledDays.NO_DAY;
+        if (mPendingSelection == SELECT_FIRST_ENABLED) {
+            selectFirstAvailableDay(notifyListeners);
+        } else if (mPendingSelection == SELECT_KEEP) {
+            //Move selection off disabled and unavailable days, pending ones are checked once loaded
+            if (mSelectedIndex < 0 || mSelectedIndex >= model.getDayCount() || getDayState(mSelectedIndex) == AvailabilityLoader.UNAVAILABLE) {
+                if (mSelectedIndex >= 0 || model.getFirstEnabledIndex() >= 0)
+                    selectFirstAvailableDay(notifyListeners);
+            } else if (mSelectedEndIndex >= 0 && hasUnavailableDay(mSelectedIndex, mSelectedEndIndex)) {
+                //Shrink a range that now spans unavailable days to its first day
+                setSelection(mSelectedIndex, -1, notifyListeners);
+            }
+        } else if (mPendingSelection != DisabledDays.NO_DAY) {
+            int endIndex = selectionEnd != DisabledDays.NO_DAY ? selectionEnd - model.getStartEpochDay() : -1;
+            setSelection(mPendingSelection - model.getStartEpochDay(), endIndex, notifyListeners);
+        } else {
+            setSelectedIndex(-1, notifyListeners);
+        }
+    }
+
+    /**
+     * Days since 1970-01-01 of the local date in the date's own zone, ignoring time of day
+     */
+    static int toEpochDay(DateTime date) {
+        //Dates coming in may be read before zones are loaded
+        TimeZoneLoader.await();
+        long localMillis = date.getZone().convertUTCToLocal(date.getMillis());
+        long epochDay = localMillis / DateTimeConstants.MILLIS_PER_DAY;
+        if (localMillis < 0 && epochDay * DateTimeConstants.MILLIS_PER_DAY != localMillis) {
+            epochDay--;
+        }
+        return (int) epochDay;
+    }
+
+    /**
+     * DateTime for an epoch day at the start date's time of day and zone
+     */
+    DateTime toDateTime(int epochDay) {
+        TimeZoneLoader.ensureLoaded(mContext);
+        DateTimeZone zone = mZone;
+        if (zone == null) {
+            zone = mZoneId != null ? DateTimeZone.forID(mZoneId) : DateTimeZone.getDefault();
+        }
+
+        LocalDate date = new LocalDate(EpochDays.year(epochDay), EpochDays.monthOfYear(epochDay), EpochDays.dayOfMonth(epochDay));
+        return mStartMillisOfDay == 0
+                ? date.toDateTimeAtStartOfDay(zone)
+                : date.toDateTime(LocalTime.fromMillisOfDay(mStartMillisOfDay), zone);
+    }
+
+    /**
+     * Selects the first day in range with the given day of month.
+     * Prefer {@link #setSelectedDate(DateTime, boolean)} when the range spans several months.
+     */
+    public void setSelectedDay(final int day, final boolean notifyListeners) {
+        int index = indexOfDayOfMonth(day);
+        setSelectedEpochDay(index >= 0 ? mStartEpochDay + index : DisabledDays.NO_DAY, notifyListeners);
+    }
+
+    public void setSelectedDate(DateTime date, boolean notifyListeners) {
+        setSelectedEpochDay(date != null && mHasRange ? toEpochDay(date) : DisabledDays.NO_DAY, notifyListeners);
+    }
+
+    /**
+     * Day of month selected. While a new range is being built this is still the
+     * selection of the range on display.
+     */
+    public int getSelectedDay() {
+        return mSelectedIndex >= 0 ? mModel.dayOfMonth(mSelectedIndex) : 0;
+    }
+
+    private void setSelectedEpochDay(int epochDay, boolean notifyListeners) {
+        //Applied once the model being built is committed
+        if (mModelTask != null) {
+            mPendingSelection = epochDay;
+            mPendingSelectionEnd = DisabledDays.NO_DAY;
+            mPendingSelectionNotifies |= notifyListeners;
+            return;
+        }
+
+        setSelectedIndex(epochDay != DisabledDays.NO_DAY && mModel != null ? epochDay - mModel.getStartEpochDay() : -1, notifyListeners);
+    }
+
+    private void setSelectedIndex(int index, boolean notifyListeners) {
+        setSelection(index, -1, notifyListeners);
+    }
+
+    /**
+     * Selects the first day that is enabled and known to be available. While a day before it is
+     * still loading nothing is selected, the first day is picked again once its batch arrives.
+     */
+    private void selectFirstAvailableDay(boolean notifyListeners) {
+        int index = mModel.getFirstEnabledIndex();
+        boolean pending = false;
+        if (index >= 0 && mAvailabilityLoader != null) {
+            int state;
+            while (index < mModel.getDayCount() && (state = getDayState(index)) != AvailabilityLoader.AVAILABLE) {
+                if (state == AvailabilityLoader.PENDING) {
+                    pending = true;
+                    break;
+                }
+                index++;
+            }
+            if (pending || index == mModel.getDayCount())
+                index = -1;
+        }
+
+        //Listeners hear about the day once it is picked, not about the wait
+        setSelectedIndex(index, notifyListeners && (!pending || mSelectedIndex >= 0));
+        mSelectionAwaitsAvailability = pending;
+        mAwaitingSelectionNotifies = pending && notifyListeners;
+    }
+
+    /**
+     * Selects the days from startIndex to endIndex, or just startIndex when endIndex is -1.
+     * Only cells entering or leaving the selection are restyled.
+     */
+    private void setSelection(int startIndex, int endIndex, boolean notifyListeners) {
+        long startNanos = mMetricsListener != null ? System.nanoTime() : 0;
+        mSelectionAwaitsAvailability = false;
+
+        if (mModel == null || startIndex < 0 || startIndex >= mModel.getDayCount())
+            startIndex = -1;
+        if (startIndex < 0 || endIndex <= startIndex || endIndex >= mModel.getDayCount())
+            endIndex = -1;
+
+        //Set selected days
+        int previousStartIndex = mSelectedIndex;
+        int previousEndIndex = getLastSelectedIndex();
+        mSelectedIndex = startIndex;
+        mSelectedEndIndex = endIndex;
+
+        //Restyle days entering or leaving the selection and both ends, the overlay only recolors their text
+        int count = SelectionDiff.changedIntervals(previousStartIndex, previousEndIndex, startIndex, getLastSelectedIndex(), mChangedIntervals);
+        for (int i = 0; i < count; i += 2) {
+            restyleDays(mChangedIntervals[i], mChangedIntervals[i + 1]);
+        }
+        if (isOverlayHighlight())
+            updateHighlight(!mRendering);
+        if (mRenderMode == RENDER_MODE_CANVAS && mDayStripView != null)
+            mDayStripView.invalidate();
+
+        //Call listeners, a range is reported once to the range listener when there is one
+        if (notifyListeners && mListener != null && (endIndex < 0 || startIndex != previousStartIndex && mRangeListener == null))
+            mListener.onDaySelected(getSelectedDate());
+        if (notifyListeners && mRangeListener != null && endIndex >= 0)
+            mRangeListener.onDayRangeSelected(getSelectedDate(), getSelectedEndDate());
+
+        if (mMetricsListener != null)
+            mMetricsListener.onSelectionChanged(System.nanoTime() - startNanos);
+    }
+
+    private int getLastSelectedIndex() {
+        return mSelectedEndIndex >= 0 ? mSelectedEndIndex : mSelectedIndex;
+    }
+
+    boolean isDaySelected(int index) {
+        return index == mSelectedIndex || index == mSelectedEndIndex;
+    }
+
+    boolean isDayInSelectedRange(int index) {
+        return index > mSelectedIndex && index < mSelectedEndIndex;
+    }
+
+    /**
+     * Whether any day from fromIndex to toIndex is disabled or not known to be available.
+     * Disabled dates are checked with a binary search, availability a batch at a time.
+     */
+    private boolean hasUnavailableDay(int fromIndex, int toIndex) {
+        int fromDay = mModel.getStartEpochDay() + fromIndex;
+        int toDay = mModel.getStartEpochDay() + toIndex;
+        return mModel.getDisabledDays().containsAny(fromDay, toDay)
+                || mModel.getDisabledRules().containsAny(fromDay, toDay)
+                || (mAvailabilityLoader != null && mAvailabilityLoader.hasUnavailableDay(fromDay, toDay));
+    }
+
+    /**
+     * Selects startDate to endDate in range selection mode. Returns false, leaving the selection
+     * as it was, if a day in between is unavailable or the dates are outside the range on display.
+     */
+    public boolean setSelectedDateRange(DateTime startDate, DateTime endDate, boolean notifyListeners) {
+        if (mModel == null) {
+            return false;
+        }
+
+        int startIndex = toEpochDay(startDate) - mModel.getStartEpochDay();
+        int endIndex = toEpochDay(endDate) - mModel.getStartEpochDay();
+        if (startIndex < 0 || endIndex <= startIndex || endIndex >= mModel.getDayCount() || hasUnavailableDay(startIndex, endIndex)) {
+            return false;
+        }
+
+        setSelection(startIndex, endIndex, notifyListeners);
+        return true;
+    }
+
+    /**
+     * {@link #SELECTION_MODE_SINGLE} selects the day tapped, {@link #SELECTION_MODE_RANGE} takes
+     * two taps: the first and the last day of a range.
+     */
+    public void setSelectionMode(int selectionMode) {
+        if (mSelectionMode == selectionMode)
+            return;
+
+        mSelectionMode = selectionMode;
+        setSelectedIndex(mSelectedIndex, false);
+    }
+
+    public int getSelectionMode() {
+        return mSelectionMode;
+    }
+
+    private void onDayClicked(int index) {
+        //Second tap after the first day closes the range when nothing in between is unavailable
+        if (mSelectionMode == SELECTION_MODE_RANGE && mSelectedIndex >= 0 && mSelectedEndIndex < 0
+                && index > mSelectedIndex && !hasUnavailableDay(mSelectedIndex, index)) {
+            setSelection(mSelectedIndex, index, true);
+        } else {
+            setSelectedIndex(index, true);
+        }
+    }
+
+    /**
+     * Index of the first day in range with the given day of month, -1 if none.
+     */
+    private int indexOfDayOfMonth(int day) {
+        if (!mHasRange || day < 1)
+            return -1;
+
+        //A day of month shows up within the next three months at most
+        int monthStart = mStartEpochDay;
+        int offset = 0;
+        for (int i = 0; i < 3 && offset < mDayCount; i++) {
+            int dayOfMonth = EpochDays.dayOfMonth(monthStart);
+            int monthLength = EpochDays.lengthOfMonth(EpochDays.year(monthStart), EpochDays.monthOfYear(monthStart));
+            if (day >= dayOfMonth && day <= monthLength) {
+                int index = offset + day - dayOfMonth;
+                return index < mDayCount ? index : -1;
+            }
+
+            offset += monthLength - dayOfMonth + 1;
+            monthStart += monthLength - dayOfMonth + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Selects how day cells are created. {@link #RENDER_MODE_INFLATED} inflates one cell per day
+     * in the range, {@link #RENDER_MODE_VIRTUALIZED} only keeps the cells around the viewport
+     * and recycles them while scrolling, {@link #RENDER_MODE_CANVAS} draws all days in a single view.
+     */
+    public void setRenderMode(int renderMode) {
+        if (mRenderMode == renderMode)
+            return;
+        if (mOpenEnded && renderMode == RENDER_MODE_INFLATED)
+            throw new IllegalStateException("Open ended ranges need the virtualized or canvas render mode");
+
+        mRenderMode = renderMode;
+        render();
+    }
+
+    public int getRenderMode() {
+        return mRenderMode;
+    }
+
+    /**
+     * Gives every cell of the inflated render mode the width of one measured template cell, so day
+     * positions are known without a layout pass. The other render modes always use fixed widths.
+     */
+    public void setFixedCellWidth(boolean fixedCellWidth) {
+        if (mFixedCellWidth == fixedCellWidth)
+            return;
+
+        mFixedCellWidth = fixedCellWidth;
+        if (mRenderMode == RENDER_MODE_INFLATED)
+            render();
+    }
+
+    public boolean isFixedCellWidth() {
+        return mFixedCellWidth;
+    }
+
+    /**
+     * Scrolls so the date is centered. With fixed width cells the offset is computed arithmetically,
+     * otherwise it is read from the laid out cell. While the range is being built or laid out the
+     * scroll happens after the next layout. Open ended ranges grow to include the date.
+     */
+    public void scrollToDate(DateTime date, boolean smooth) {
+        if (date == null || !mHasRange) {
+            return;
+        }
+
+        int epochDay = toEpochDay(date);
+        if (mOpenEnded && epochDay - mStartEpochDay >= mDayCount) {
+            int cellWidth = getCellWidth();
+            int maxDayCount = cellWidth > 0 ? Integer.MAX_VALUE / cellWidth - 1 : Integer.MAX_VALUE;
+            mDayCount = Math.min(maxDayCount, epochDay - mStartEpochDay + mPagingWindowDays);
+            requestModel(SELECT_KEEP);
+        }
+
+        //Scrolling clamps to the laid out content, so a pending layout has to run first unless it already reaches the day
+        if (mModel == null || mModelTask != null || mResourcesReleased || (isLayoutRequested() && !isLaidOutPast(epochDay))) {
+            mPendingScrollDay = epochDay;
+            mPendingScrollSmooth = smooth;
+            return;
+        }
+        scrollToDay(epochDay, smooth);
+    }
+
+    public void scrollToSelectedDate(boolean smooth) {
+        if (mSelectedIndex >= 0)
+            scrollToDate(getSelectedDate(), smooth);
+    }
+
+    /**
+     * Whether the laid out content is wide enough to center the day without clamping, which
+     * only fixed width cells can tell before the layout runs
+     */
+    private boolean isLaidOutPast(int epochDay) {
+        int cellWidth = getCellWidth();
+        if (cellWidth == 0) {
+            return false;
+        }
+        long dayRight = (long) (epochDay - mModel.getStartEpochDay() + 1) * cellWidth;
+        return mModel.getDayCount() * (long) cellWidth == mDaysContainer.getWidth()
+                && dayRight + getViewportWidth() / 2 <= mDaysContainer.getWidth();
+    }
+
+    private void scrollToDay(int epochDay, boolean smooth) {
+        int index = Math.max(0, Math.min(epochDay - mModel.getStartEpochDay(), mModel.getDayCount() - 1));
+
+        //Arithmetic with fixed width cells, from the laid out cell otherwise
+        int cellWidth = getCellWidth();
+        int left;
+        if (cellWidth > 0) {
+            left = index * cellWidth;
+        } else {
+            DayView dayView = findDayView(index);
+            if (dayView == null) {
+                return;
+            }
+            left = dayView.getView().getLeft();
+            cellWidth = dayView.getView().getWidth();
+        }
+
+        //Center the day
+        int x = Math.max(0, left - (getViewportWidth() - cellWidth) / 2);
+        if (smooth) {
+            smoothScrollTo(x, 0);
+        } else {
+            scrollTo(x, 0);
+        }
+    }
+
+
+    /**
+     * Ui
+     */
+    private int getColor(int colorResId) {
+        return getResources().getColor(colorResId);
+    }
+
+    private void render() {
+        if (mModel == null) {
+            return;
+        }
+
+        long startNanos = mMetricsListener != null ? System.nanoTime() : 0;
+        mInflatedCellCount = 0;
+        mRecycledCellCount = 0;
+        mRendering = true;
+        renderDays();
+        mRendering = false;
+        mResourcesReleased = false;
+
+        updateHighlight(false);
+
+        if (mMetricsListener != null)
+            mMetricsListener.onRender(System.nanoTime() - startNanos, mInflatedCellCount, mRecycledCellCount);
+    }
+
+    private void renderDays() {
+        releaseDayViews();
+        mLabels = DayLabels.get(Locale.getDefault());
+        mDaysContainer.setFixedCellWidth(0);
+
+        if (mRenderMode == RENDER_MODE_VIRTUALIZED) {
+            renderVirtualized();
+            return;
+        }
+        if (mRenderMode == RENDER_MODE_CANVAS) {
+            renderCanvas();
+            return;
+        }
+
+        //Fixed width cells all take the width of one measured template
+        mCellWidth = mFixedCellWidth ? measureCellWidth() : 0;
+        mDaysContainer.setFixedCellWidth(mCellWidth);
+
+        //Add left padding
+        mLeftSpace = new Space(mContext);
+        mDaysContainer.addView(mLeftSpace);
+
+        //Cycle from start day, taking pooled cells before inflating new ones
+        for (int index = 0; index < mModel.getDayCount(); index++) {
+            mDaysContainer.addView(obtainBoundDayView(index).getView());
+        }
+
+        //Add right padding
+        mRightSpace = new Space(mContext);
+        mDaysContainer.addView(mRightSpace);
+    }
+
+    private void bindDayView(DayView dayView, int index) {
+        dayView.setIndex(index);
+
+        //Set texts from cached labels
+        dayView.setDayOfWeek(mLabels.dayOfWeek(mModel.dayOfWeek(index)));
+        if(!mDisplayDayOfWeek) {
+            dayView.hideDayOfWeek();
+        } else {
+            dayView.showDayOfWeek();
+        }
+
+        dayView.setDay(mModel.dayOfMonth(index));
+
+        dayView.setMonthShortName(mLabels.month(mModel.monthOfYear(index)));
+
+        //Hide month if range in same month
+        if (!mAlwaysDisplayMonth && mModel.isInEndMonth(index)) {
+            dayView.hideMonthShortName();
+        } else {
+            dayView.showMonthShortName();
+        }
+
+        bindBadge(dayView);
+        bindDayState(dayView);
+    }
+
+    /**
+     * Applies disabled and selected state: colors and click listener.
+     */
+    private void bindDayState(DayView dayView) {
+        int index = dayView.getIndex();
+
+        //Set style
+        styleDayView(dayView);
+
+        //Set listener
+        if (!isDayDisabled(index)) {
+            dayView.setOnClickListener(this);
+        } else {
+            dayView.setOnClickListener(null);
+            dayView.getView().setClickable(false);
+        }
+    }
+
+    private void styleDayView(DayView dayView) {
+        int index = dayView.getIndex();
+        if (isOverlayHighlight()) {
+            //Selection is drawn behind the cells
+            boolean selected = isDaySelected(index);
+            dayView.setTextColor(selected ? mSelectedDayTextColor : getDayTextColor(index));
+            dayView.setBadgeTextColor(selected ? mSelectedDayTextColor : mBadgeTextColor);
+            dayView.setBackgroundColor(0);
+        } else if (isDaySelected(index)) {
+            dayView.setTextColor(mSelectedDayTextColor);
+            dayView.setBadgeTextColor(mSelectedDayTextColor);
+            dayView.setBackgroundColor(mSelectedDayBackgroundColor);
+        } else {
+            dayView.setTextColor(getDayTextColor(index));
+            dayView.setBadgeTextColor(mBadgeTextColor);
+            dayView.setBackgroundColor(isDayInSelectedRange(index) ? mSelectedRangeBackgroundColor : 0);
+        }
+    }
+
+    /**
+     * Selection highlight
+     */
+    /**
+     * {@link #SELECTION_HIGHLIGHT_CELL} restyles the selected cells. {@link #SELECTION_HIGHLIGHT_OVERLAY}
+     * moves views behind the cells instead, by translation and scale, so cells are neither measured
+     * nor laid out and only the text color of the days entering or leaving the selection changes.
+     * The canvas render mode always draws the selection itself.
+     */
+    public void setSelectionHighlight(int selectionHighlight) {
+        if (mSelectionHighlight == selectionHighlight)
+            return;
+
+        mSelectionHighlight = selectionHighlight;
+        setupDaysContainerBackground();
+        rebindDayStates();
+    }
+
+    public int getSelectionHighlight() {
+        return mSelectionHighlight;
+    }
+
+    /**
+     * Duration of overlay highlight moves in milliseconds, 0 moves right away
      */
-    public void init(Context context, AttributeSet attributeSet) {
-        mContext = context;
-
-        //Init JodaTime
-        JodaTimeAndroid.init(context);
-
-        //Inflate view
-        View view = LayoutInflater.from(mContext).inflate(WIDGET_LAYOUT_RES_ID, this, true);
-
-        //Get controls
-        mDaysContainer = (LinearLayout) view.findViewById(DAYS_CONTAINER_RES_ID);
+    public void setSelectionHighlightDuration(long durationMillis) {
+        mHighlightDuration = durationMillis;
+        mHighlight.setDuration(durationMillis);
+    }
 
-        //Get custom attributes
-        mDisplayDayOfWeek = true;
-        if(attributeSet != null) {
-            TypedArray a = mContext.getTheme().obtainStyledAttributes(attributeSet, R.styleable.Ranger, 0, 0);
+    @SuppressWarnings("deprecation")
+    private void setupDaysContainerBackground() {
+        if (mSelectionHighlight != SELECTION_HIGHLIGHT_OVERLAY) {
+            mDaysFrame.setBackgroundDrawable(null);
+            mDaysContainer.setBackgroundColor(mDaysContainerBackgroundColor);
+            mHighlight.clear();
+            return;
+        }
 
-            try {
+        //The highlight sits between the frame's background and the cells
+        mDaysContainer.setBackgroundDrawable(null);
+        mDaysFrame.setBackgroundColor(mDaysContainerBackgroundColor);
+        mHighlight.setColors(mSelectedDayBackgroundColor, mSelectedRangeBackgroundColor);
+        mHighlight.setDuration(mHighlightDuration);
+        updateHighlight(false);
+    }
 
-                //Colors
-                mDayTextColor = a.getColor(R.styleable.Ranger_dayTextColor, getColor(R.color.default_day_text_color));
-                mDayUnavailableTextColor = a.getColor(R.styleable.Ranger_dayUnavailableTextColor, getColor(R.color.default_unavailable_day_text_color));
-                mSelectedDayTextColor = a.getColor(R.styleable.Ranger_selectedDayTextColor, getColor(R.color.default_selected_day_text_color));
+    private boolean isOverlayHighlight() {
+        return mSelectionHighlight == SELECTION_HIGHLIGHT_OVERLAY && mRenderMode != RENDER_MODE_CANVAS;
+    }
 
-                mDaysContainerBackgroundColor = a.getColor(R.styleable.Ranger_daysContainerBackgroundColor, getColor(R.color.default_days_container_background_color));
-                mSelectedDayBackgroundColor = a.getColor(R.styleable.Ranger_selectedDayBackgroundColor, getColor(R.color.default_selected_day_background_color));
+    /**
+     * Moves the overlay highlight to the selection. Cells not laid out yet are picked up by the next layout.
+     */
+    private void updateHighlight(boolean animate) {
+        if (!isOverlayHighlight() || mModel == null || mSelectedIndex < 0) {
+            mHighlight.clear();
+            return;
+        }
 
-                //Labels
-                mAlwaysDisplayMonth = a.getBoolean(R.styleable.Ranger_alwaysDisplayMonth, false);
-                mDisplayDayOfWeek = a.getBoolean(R.styleable.Ranger_displayDayOfWeek, true);
+        int selectedLeft = getDayLeft(mSelectedIndex);
+        int lastIndex = getLastSelectedIndex();
+        int rangeRight = getDayLeft(lastIndex);
+        if (selectedLeft < 0 || rangeRight < 0) {
+            return;
+        }
+        int lastLeft = rangeRight;
+        int selectedRight = selectedLeft + getDayWidth(mSelectedIndex);
+        rangeRight += getDayWidth(lastIndex);
+
+        //The selected day covers single day selections
+        mHighlight.moveTo(SelectionHighlight.SELECTED_DAY, selectedLeft, selectedRight, animate);
+        if (lastIndex == mSelectedIndex) {
+            mHighlight.moveTo(SelectionHighlight.RANGE, 0, 0, animate);
+            mHighlight.moveTo(SelectionHighlight.SELECTED_END_DAY, 0, 0, animate);
+        } else {
+            mHighlight.moveTo(SelectionHighlight.RANGE, selectedLeft, rangeRight, animate);
+            mHighlight.moveTo(SelectionHighlight.SELECTED_END_DAY, lastLeft, rangeRight, animate);
+        }
+    }
 
-            } finally {
-                a.recycle();
-            }
+    /**
+     * Left of the day in the days container, -1 while unknown
+     */
+    private int getDayLeft(int index) {
+        int cellWidth = getCellWidth();
+        if (cellWidth > 0) {
+            return index * cellWidth;
         }
+        DayView dayView = findDayView(index);
+        return dayView != null && dayView.getView().getWidth() > 0 ? dayView.getView().getLeft() : -1;
+    }
 
-        //Setup styling
-        //Days Container
-        mDaysContainer.setBackgroundColor(mDaysContainerBackgroundColor);
+    private int getDayWidth(int index) {
+        int cellWidth = getCellWidth();
+        if (cellWidth > 0) {
+            return cellWidth;
+        }
+        DayView dayView = findDayView(index);
+        return dayView != null ? dayView.getView().getWidth() : 0;
     }
 
-    /***
-     * State modification
+    /**
+     * Restyles the cells bound from fromIndex to toIndex
      */
-    public void setStartAndEndDateWithParts(int startYear, int startMonth, int startDay, int endYear, int endMonth, int endDay) {
-        setStartDateWithParts(startYear, startMonth, startDay);
-        setEndDateWithParts(endYear, endMonth, endDay);
+    private void restyleDays(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || mRenderMode == RENDER_MODE_CANVAS) {
+            return;
+        }
 
-        render();
-        //Set Selection. Default is today.
-        setSelectedDay(startDay, false);
+        //Only bound cells, a long range must not cost a long loop
+        if (mRenderMode == RENDER_MODE_VIRTUALIZED) {
+            fromIndex = Math.max(fromIndex, mFirstBoundIndex);
+            toIndex = Math.min(toIndex, mFirstBoundIndex + mBoundDayViews.size() - 1);
+        }
+        for (int index = fromIndex; index <= toIndex; index++) {
+            DayView dayView = findDayView(index);
+            if (dayView != null)
+                styleDayView(dayView);
+        }
     }
 
-    public void setStartAndEndDateWithDisabledDates(DateTime startDate, DateTime endDate, List<DateTime> disabledDates) {
-        mStartDate = startDate;
-        mEndDate = endDate;
-        mDisabledDates = new ArrayList<>(disabledDates);
+    /**
+     * Virtualized rendering
+     */
+    private void renderVirtualized() {
+        mCellWidth = measureCellWidth();
+        mFirstBoundIndex = 0;
 
-        //Add left padding
+        //Spaces stand in for the cells outside the bound window
         mLeftSpace = new Space(mContext);
-        mDaysContainer.addView(mLeftSpace);
-
-        //Cycle from start day
-        DateTime date = mStartDate;
-        int startDay = 0;
+        mDaysContainer.addView(mLeftSpace, new LinearLayout.LayoutParams(0, 0));
+        mRightSpace = new Space(mContext);
+        mDaysContainer.addView(mRightSpace, new LinearLayout.LayoutParams(mModel.getDayCount() * mCellWidth, 0));
 
-        while (startDay == 0 && date.isBefore(mEndDate.plusDays(1))) {
+        updateVirtualizedWindow();
+    }
 
-            if (!disabledDatesContains(date)) {
-                startDay = date.getDayOfMonth();
+    private int measureCellWidth() {
+        DayView template = obtainDayView();
+        int unspecified = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+        int width = 0;
+
+        //Widest label combination wins: every week day and every month
+        bindDayView(template, 0);
+        template.showMonthShortName();
+        for (int i = 0; i < 7 + 12; i++) {
+            if (i < 7) {
+                template.setDayOfWeek(mLabels.dayOfWeek(i + 1));
+            } else {
+                template.setMonthShortName(mLabels.month(i - 6));
             }
-            date = date.plusDays(1);
+            template.getView().measure(unspecified, unspecified);
+            width = Math.max(width, template.getView().getMeasuredWidth());
         }
 
-        render();
-
-        setSelectedDay(startDay, false);
+        mDayViewPool.release(template);
+        return width;
     }
 
-    private boolean disabledDatesContains(DateTime date) {
-        if (mDisabledDates == null) {
-            return false;
+    private void updateVirtualizedWindow() {
+        if (mRenderMode != RENDER_MODE_VIRTUALIZED || mRightSpace == null || mCellWidth == 0) {
+            return;
         }
 
-        boolean found = false;
-        int pos = 0;
-        while (!found && pos < mDisabledDates.size()) {
-            if (mDisabledDates.get(pos).getMillis() == date.getMillis()) {
-                found = true;
-            }
-            pos++;
+        //Renders report their own cells
+        boolean measure = mMetricsListener != null && !mRendering;
+        long startNanos = measure ? System.nanoTime() : 0;
+        int inflatedCellCount = mInflatedCellCount;
+        int recycledCellCount = mRecycledCellCount;
+
+        //Visible cells plus margin
+        int viewportWidth = getViewportWidth();
+        int scrollX = getScrollX();
+        int first = Math.max(0, scrollX / mCellWidth - VIRTUALIZED_MARGIN_CELLS);
+        int last = Math.min(mModel.getDayCount() - 1, (scrollX + viewportWidth) / mCellWidth + VIRTUALIZED_MARGIN_CELLS);
+
+        //Recycle cells that left the window
+        while (!mBoundDayViews.isEmpty() && (mFirstBoundIndex < first || mFirstBoundIndex > last)) {
+            recycleDayView(mBoundDayViews.remove(0));
+            mFirstBoundIndex++;
+        }
+        while (!mBoundDayViews.isEmpty() && mFirstBoundIndex + mBoundDayViews.size() - 1 > last) {
+            recycleDayView(mBoundDayViews.remove(mBoundDayViews.size() - 1));
+        }
+        if (mBoundDayViews.isEmpty()) {
+            mFirstBoundIndex = first;
         }
-        return found;
-    }
 
-    public void setDisabledDates(List<DateTime> disabledDates) {
-        mDisabledDates = new ArrayList<>(disabledDates);
+        //Bind cells that entered the window
+        while (mFirstBoundIndex > first) {
+            mFirstBoundIndex--;
+            DayView dayView = obtainBoundDayView(mFirstBoundIndex);
+            mBoundDayViews.add(0, dayView);
+            mDaysContainer.addView(dayView.getView(), 1);
+        }
+        while (mFirstBoundIndex + mBoundDayViews.size() - 1 < last) {
+            DayView dayView = obtainBoundDayView(mFirstBoundIndex + mBoundDayViews.size());
+            mBoundDayViews.add(dayView);
+            mDaysContainer.addView(dayView.getView(), mDaysContainer.getChildCount() - 1);
+        }
 
-        //Add left padding
-        mLeftSpace = new Space(mContext);
-        mDaysContainer.addView(mLeftSpace);
+        //Resize spaces
+        int lastBoundIndex = mFirstBoundIndex + mBoundDayViews.size() - 1;
+        setSpaceWidth(mLeftSpace, mFirstBoundIndex * mCellWidth);
+        setSpaceWidth(mRightSpace, (mModel.getDayCount() - 1 - lastBoundIndex) * mCellWidth);
+
+        if (measure && (mInflatedCellCount != inflatedCellCount || mRecycledCellCount != recycledCellCount)) {
+            mMetricsListener.onCellsBound(System.nanoTime() - startNanos,
+                    mInflatedCellCount - inflatedCellCount, mRecycledCellCount - recycledCellCount);
+        }
+    }
 
-        DateTime date = mStartDate;
-        int startDay = 0;
+    /**
+     * Canvas rendering
+     */
+    private void renderCanvas() {
+        if (mDayStripView == null)
+            mDayStripView = new DayStripView(this);
 
-        while (startDay == 0 && date.isBefore(mEndDate.withTime(23,59,59,999))) {
+        mDayStripView.setup();
+        mDaysContainer.addView(mDayStripView);
+        mDayStripView.setViewport(getScrollX(), getViewportWidth());
+    }
 
-            if (!disabledDatesContains(date)) {
-                startDay = date.getDayOfMonth();
-            }
+    /**
+     * Paging
+     */
+    /**
+     * Width of every cell when they all share it, 0 otherwise
+     */
+    private int getCellWidth() {
+        if (mRenderMode == RENDER_MODE_VIRTUALIZED || mRenderMode == RENDER_MODE_INFLATED)
+            return mCellWidth;
+        return mRenderMode == RENDER_MODE_CANVAS && mDayStripView != null ? mDayStripView.mCellWidth : 0;
+    }
+
+    /**
+     * First day of a paging window centered on the viewport
+     */
+    private int getPagingWindowFirstIndex() {
+        int cellWidth = getCellWidth();
+        if (cellWidth == 0) {
+            return 0;
+        }
+        int centerIndex = (getScrollX() + getViewportWidth() / 2) / cellWidth;
+        return Math.max(0, centerIndex - mPagingWindowDays / 2);
+    }
 
-            date = date.plusDays(1);
+    /**
+     * Grows open ended ranges and moves the packed window when the viewport gets within
+     * the prefetch distance of their edges
+     */
+    private void updatePaging() {
+        int cellWidth = getCellWidth();
+        if (!mOpenEnded || mModel == null || mModelTask != null || cellWidth == 0) {
+            return;
         }
 
-        date = mStartDate;
-        boolean isSelectedDayDisabled = false;
-        while (!isSelectedDayDisabled && date.isBefore(mEndDate.plusDays(1))) {
+        int firstVisible = getScrollX() / cellWidth;
+        int lastVisible = (getScrollX() + getViewportWidth()) / cellWidth;
 
-            if (disabledDatesContains(date) && date.getDayOfMonth() == mSelectedDay) {
-                isSelectedDayDisabled = true;
-            }
+        //A fling grows the range up to where it is heading
+        int lastNeeded = lastVisible + mPagingPrefetchDays;
+        if (mFlingDirection > 0)
+            lastNeeded = Math.max(lastNeeded, mFlingTargetIndex);
 
-            date = date.plusDays(1);
-        }
+        //Content width stays within an int
+        int maxDayCount = Integer.MAX_VALUE / cellWidth - 1;
+        boolean grow = lastNeeded >= mDayCount && mDayCount < maxDayCount;
+        if (grow)
+            mDayCount = Math.min(maxDayCount, Math.max(mDayCount, lastNeeded) + mPagingWindowDays);
 
-        render();
+        int windowFirst = mModel.getFirstIndex();
+        int windowLast = windowFirst + mModel.getWindowCount() - 1;
+        boolean slide = (firstVisible - mPagingPrefetchDays < windowFirst && windowFirst > 0)
+                || (lastVisible + mPagingPrefetchDays > windowLast && windowLast < mDayCount - 1);
 
-        if(mSelectedDay > 0 || startDay > 0) {
-            int selectedDay = !isSelectedDayDisabled && mSelectedDay > 0 ? mSelectedDay : startDay;
-            setSelectedDay(selectedDay, false);
-        }
+        if (grow || slide)
+            requestModel(SELECT_KEEP);
     }
 
-    private void setStartDateWithParts(int year, int month, int day) {
-        mStartDate = new DateTime(year, month, day, 0, 0, 0);
+    /**
+     * Fling prefetch
+     */
+    @Override
+    public void fling(int velocityX) {
+        super.fling(velocityX);
+        startFlingPrefetch(velocityX);
     }
 
-    private void setEndDateWithParts(int year, int month, int day) {
-        mEndDate = new DateTime(year, month, day, 23, 59, 59);
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        //A touch stops the fling
+        if (event.getActionMasked() == MotionEvent.ACTION_DOWN)
+            cancelFlingPrefetch();
+        return super.onTouchEvent(event);
     }
 
-    public void setSelectedDay(final int day, final boolean notifyListeners) {
-        //Deselect day selected
-        if(mSelectedDay > 0)
-            unSelectDay(mSelectedDay);
-
-        //Set selected day
-        mSelectedDay = day;
-        selectDay(mSelectedDay);
+    private void startFlingPrefetch(int velocityX) {
+        int direction = Integer.signum(velocityX);
+        if (direction != mFlingDirection)
+            cancelFlingPrefetch();
 
-        //Call listener
-        if(notifyListeners && mListener != null)
-            mListener.onDaySelected(getSelectedDate());
-    }
+        int cellWidth = getCellWidth();
+        if (direction == 0 || mModel == null || mModelTask != null || cellWidth == 0 || mRenderMode == RENDER_MODE_INFLATED) {
+            return;
+        }
 
-    public int getSelectedDay() {
-        return mSelectedDay;
+        //Day the far edge of the viewport is expected to reach
+        int edge = direction > 0 ? getScrollX() + getViewportWidth() : getScrollX();
+        long target = (edge + direction * (long) getFlingDistance(velocityX)) / cellWidth + direction * VIRTUALIZED_MARGIN_CELLS;
+        mFlingDirection = direction;
+        mFlingTargetIndex = (int) Math.max(0, Math.min(Integer.MAX_VALUE - 1, target));
+        if (mFrameIntervalNanos == 0)
+            mFrameIntervalNanos = getFrameIntervalNanos();
+
+        //Availability of the days ahead is asked for once
+        if (mAvailabilityLoader != null) {
+            int firstVisible = getScrollX() / cellWidth;
+            int lastVisible = (getScrollX() + getViewportWidth()) / cellWidth;
+            int from = direction > 0 ? lastVisible + 1 : Math.max(0, mFlingTargetIndex);
+            int to = direction > 0 ? Math.min(mModel.getDayCount() - 1, mFlingTargetIndex) : firstVisible - 1;
+            if (from <= to)
+                mAvailabilityLoader.prefetch(mModel.getStartEpochDay() + from, mModel.getStartEpochDay() + to);
+        }
     }
 
-
     /**
-     * Ui
+     * Called from each frame of a fling. Posted work runs once the frame is drawn, the frame
+     * deadline is counted from the time the frame started drawing.
      */
-    private int getColor(int colorResId) {
-        return getResources().getColor(colorResId);
-    }
+    private void scheduleFlingPrefetch(int scrollDelta) {
+        if (mFlingDirection == 0) {
+            return;
+        }
+        //The scroller has stopped, turned or reached the target
+        if (Integer.signum(scrollDelta) != mFlingDirection || hasReachedFlingTarget()) {
+            cancelFlingPrefetch();
+            return;
+        }
 
-    private void render() {
-        if (mStartDate == null || mEndDate == null) {
+        //The scroller reports no end, a fling that stops scrolling is over
+        removeCallbacks(mFlingIdleRunnable);
+        postDelayed(mFlingIdleRunnable, TimeUnit.NANOSECONDS.toMillis(FLING_IDLE_FRAMES * mFrameIntervalNanos));
+
+        if (mRenderMode != RENDER_MODE_VIRTUALIZED || mPrefetchPosted) {
             return;
         }
-        mDaysContainer.removeAllViews();
 
-        //Get inflater for view
-        LayoutInflater inflater = LayoutInflater.from(mContext);
+        long frameElapsedNanos = TimeUnit.MILLISECONDS.toNanos(SystemClock.uptimeMillis() - getDrawingTime());
+        mPrefetchDeadlineNanos = System.nanoTime() - frameElapsedNanos + mFrameIntervalNanos - PREFETCH_DEADLINE_MARGIN_NANOS;
+        mPrefetchPosted = true;
+        post(mPrefetchRunnable);
+    }
 
-        //Add left padding
-        mLeftSpace = new Space(mContext);
-        mDaysContainer.addView(mLeftSpace);
+    /**
+     * Whether the viewport edge reached the day the fling was heading to, or the end of the content
+     */
+    private boolean hasReachedFlingTarget() {
+        int cellWidth = getCellWidth();
+        if (cellWidth == 0) {
+            return true;
+        }
 
-        //Cycle from start day
-        DateTime startDate = mStartDate;
-        DateTime endDate = mEndDate;
+        int scrollX = getScrollX();
+        if (mFlingDirection < 0) {
+            return scrollX <= 0 || scrollX / cellWidth - VIRTUALIZED_MARGIN_CELLS <= mFlingTargetIndex;
+        }
+        int maxScrollX = getChildCount() > 0 ? getChildAt(0).getWidth() - getViewportWidth() : 0;
+        return scrollX >= maxScrollX || (scrollX + getViewportWidth()) / cellWidth + VIRTUALIZED_MARGIN_CELLS >= mFlingTargetIndex;
+    }
 
-        boolean isDayDisabled;
-        while (startDate.isBefore(endDate)) {
+    /**
+     * Binds and measures the cells past the bound window in the fling direction, while the
+     * average bind still fits before the frame deadline
+     */
+    private void prefetchFlingCells() {
+        if (mFlingDirection == 0 || mModel == null || mBoundDayViews.isEmpty() || mCellWidth == 0) {
+            return;
+        }
+        recyclePassedPrefetchedDayViews();
+
+        //From the edge of the bound window towards the fling target
+        int index = mFlingDirection > 0 ? mFirstBoundIndex + mBoundDayViews.size() : mFirstBoundIndex - 1;
+        int end = mFlingDirection > 0 ? Math.min(mModel.getDayCount() - 1, mFlingTargetIndex) : mFlingTargetIndex;
+        int widthSpec = MeasureSpec.makeMeasureSpec(mCellWidth, MeasureSpec.EXACTLY);
+        int heightSpec = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+        for (int count = 0; count < MAX_PREFETCH_CELLS && (end - index) * mFlingDirection >= 0; count++, index += mFlingDirection) {
+            if (mPrefetchedDayViews.get(index) != null) {
+                continue;
+            }
 
-            //Inflate view
-            LinearLayout view = (LinearLayout) inflater.inflate(DAY_VIEW_LAYOUT_RES_ID, mDaysContainer, false);
+            long startNanos = System.nanoTime();
+            if (startNanos + mPrefetchBindNanos > mPrefetchDeadlineNanos) {
+                break;
+            }
+            DayView dayView = obtainBoundDayView(index);
+            dayView.getView().measure(widthSpec, heightSpec);
+            mPrefetchedDayViews.put(index, dayView);
 
-            //new DayView
-            DayView dayView = new DayView(view);
+            //Running average of a bind
+            long bindNanos = System.nanoTime() - startNanos;
+            mPrefetchBindNanos = mPrefetchBindNanos == 0 ? bindNanos : (3 * mPrefetchBindNanos + bindNanos) / 4;
+        }
+    }
 
-            //Set texts and listener
-            String dayOfTheWeekShortText = startDate.dayOfWeek().getAsShortText();
-            dayView.setDayOfWeek(
-                    dayOfTheWeekShortText.length() >= 3 ? dayOfTheWeekShortText.substring(0, 3) : dayOfTheWeekShortText
-            );
-            if(!mDisplayDayOfWeek)
-                dayView.hideDayOfWeek();
+    /**
+     * Gives back prefetched cells the bound window has moved past without taking
+     */
+    private void recyclePassedPrefetchedDayViews() {
+        int lastBoundIndex = mFirstBoundIndex + mBoundDayViews.size() - 1;
+        for (int i = mPrefetchedDayViews.size() - 1; i >= 0; i--) {
+            int index = mPrefetchedDayViews.keyAt(i);
+            if (mFlingDirection > 0 ? index <= lastBoundIndex : index >= mFirstBoundIndex) {
+                recycleDayView(mPrefetchedDayViews.valueAt(i));
+                mPrefetchedDayViews.removeAt(i);
+            }
+        }
+    }
 
-            dayView.setDay(startDate.getDayOfMonth());
+    /**
+     * Stops prefetching and gives prefetched cells back to the pool
+     */
+    private void cancelFlingPrefetch() {
+        mFlingDirection = 0;
+        removeCallbacks(mFlingIdleRunnable);
+        if (mPrefetchPosted) {
+            removeCallbacks(mPrefetchRunnable);
+            mPrefetchPosted = false;
+        }
+        for (int i = 0; i < mPrefetchedDayViews.size(); i++) {
+            recycleDayView(mPrefetchedDayViews.valueAt(i));
+        }
+        mPrefetchedDayViews.clear();
+    }
 
-            String monthOfTheWeekShortText = startDate.monthOfYear().getAsShortText();
-            dayView.setMonthShortName(
-                    monthOfTheWeekShortText.length() >= 3 ? monthOfTheWeekShortText.substring(0, 3) : monthOfTheWeekShortText
-            );
+    /**
+     * Distance in pixels a fling travels before stopping
+     */
+    private double getFlingDistance(int velocity) {
+        float ppi = getResources().getDisplayMetrics().density * 160f;
+        double physicalCoefficient = SensorManager.GRAVITY_EARTH * 39.37 * ppi * 0.84;
+        double friction = ViewConfiguration.getScrollFriction();
+        double l = Math.log(FLING_INFLEXION * Math.abs(velocity) / (friction * physicalCoefficient));
+        return friction * physicalCoefficient * Math.exp(FLING_DECELERATION_RATE / (FLING_DECELERATION_RATE - 1) * l);
+    }
 
-            isDayDisabled = disabledDatesContains(startDate);
+    private long getFrameIntervalNanos() {
+        WindowManager windowManager = (WindowManager) mContext.getSystemService(Context.WINDOW_SERVICE);
+        float refreshRate = windowManager.getDefaultDisplay().getRefreshRate();
+        return (long) (TimeUnit.SECONDS.toNanos(1) / (refreshRate >= 30 ? refreshRate : 60));
+    }
 
-            //Hide month if range in same month
-            if (!mAlwaysDisplayMonth && startDate.getMonthOfYear() == endDate.getMonthOfYear()) {
-                dayView.hideMonthShortName();
-            }
+    void onDayTapped(int index) {
+        onDayClicked(index);
+    }
 
-            //Set style
-            if (!isDayDisabled) {
-                dayView.setTextColor(mDayTextColor);
-            } else {
-                dayView.setTextColor(mDayUnavailableTextColor);
-            }
+    private int getViewportWidth() {
+        return getWidth() > 0 ? getWidth() : getResources().getDisplayMetrics().widthPixels;
+    }
 
-            //Set listener
-            if (!isDayDisabled) {
-                dayView.setOnClickListener(this);
-            }
+    private DayView obtainBoundDayView(int index) {
+        //Cells prefetched during a fling only need their state refreshed
+        DayView dayView = mPrefetchedDayViews.get(index);
+        if (dayView != null) {
+            mPrefetchedDayViews.remove(index);
+            bindBadge(dayView);
+            bindDayState(dayView);
+            return dayView;
+        }
 
-            //Add to container
-            mDaysContainer.addView(dayView.getView());
+        dayView = obtainDayView();
+        bindDayView(dayView, index);
+
+        //Pooled cells may come from a Ranger with another cell width
+        int width = mCellWidth > 0 ? mCellWidth : ViewGroup.LayoutParams.WRAP_CONTENT;
+        ViewGroup.LayoutParams params = dayView.getView().getLayoutParams();
+        if (params == null) {
+            dayView.getView().setLayoutParams(new LinearLayout.LayoutParams(width, ViewGroup.LayoutParams.WRAP_CONTENT));
+        } else if (params.width != width || params.height != ViewGroup.LayoutParams.WRAP_CONTENT) {
+            params.width = width;
+            params.height = ViewGroup.LayoutParams.WRAP_CONTENT;
+            dayView.getView().setLayoutParams(params);
+        }
+        return dayView;
+    }
 
-            //Next day
-            startDate = startDate.plusDays(1);
+    private DayView obtainDayView() {
+        DayView dayView = mDayViewPool.acquire();
+        if (dayView != null) {
+            mRecycledCellCount++;
+            return dayView;
         }
+        mInflatedCellCount++;
+        return new DayView(LayoutInflater.from(mContext).inflate(DAY_VIEW_LAYOUT_RES_ID, mDaysContainer, false));
+    }
 
-        //Add right padding
-        mRightSpace = new Space(mContext);
-        mDaysContainer.addView(mRightSpace);
+    private void recycleDayView(DayView dayView) {
+        mDayViewPool.release(dayView);
     }
 
-    private void unSelectDay(int day) {
-        DateTime currentDate = getCurrentDateFromDay(day);
-        boolean isDayDisabled = disabledDatesContains(currentDate);
-        for (int i = 1; i < mDaysContainer.getChildCount() - 1; i++) {
-            DayView dayView = new DayView(mDaysContainer.getChildAt(i));
-            if(dayView.getDay() == day) {
-                if (!isDayDisabled) {
-                    dayView.setTextColor(mDayTextColor);
-                }
-                else {
-                    dayView.setTextColor(mDayUnavailableTextColor);
-                }
-                dayView.setBackgroundColor(0);
-                return;
-            }
+    private void setSpaceWidth(Space space, int width) {
+        ViewGroup.LayoutParams params = space.getLayoutParams();
+        if (params.width != width) {
+            params.width = width;
+            space.setLayoutParams(params);
         }
     }
 
-    private DateTime getCurrentDateFromDay(int day) {
-        boolean found = false;
-        DateTime date = mStartDate;
-        while (!found && date.isBefore(mEndDate)) {
-            if (date.getDayOfMonth() == day) {
-                found = true;
-            }
-            else {
-                date = date.plusDays(1);
-            }
+    /**
+     * Cell currently showing the day at index, null if it is not bound.
+     */
+    private DayView findDayView(int index) {
+        if (mRenderMode == RENDER_MODE_CANVAS || index < 0) {
+            return null;
+        }
+        if (mRenderMode == RENDER_MODE_VIRTUALIZED) {
+            int position = index - mFirstBoundIndex;
+            return position >= 0 && position < mBoundDayViews.size() ? mBoundDayViews.get(position) : null;
+        }
+
+        //Cells follow the left space
+        View view = index + 1 < mDaysContainer.getChildCount() - 1 ? mDaysContainer.getChildAt(index + 1) : null;
+        return view != null ? DayView.from(view) : null;
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+
+        //Labels follow the locale
+        if (mLabels != null && !mLabels.getLocale().equals(Locale.getDefault())) {
+            render();
         }
-        return date;
     }
 
-    private void selectDay(int day) {
-        for (int i = 1; i < mDaysContainer.getChildCount() - 1; i++) {
-            DayView dayView = new DayView(mDaysContainer.getChildAt(i));
-            if(dayView.getDay() == day) {
+    @Override
+    protected void onScrollChanged(int l, int t, int oldl, int oldt) {
+        super.onScrollChanged(l, t, oldl, oldt);
+        updatePaging();
+        updateVirtualizedWindow();
+        scheduleFlingPrefetch(l - oldl);
+        if (mRenderMode == RENDER_MODE_CANVAS && mDayStripView != null)
+            mDayStripView.setViewport(l, getViewportWidth());
+    }
 
-                dayView.setTextColor(mSelectedDayTextColor);
-                dayView.setBackgroundColor(mSelectedDayBackgroundColor);
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (mResourcesReleased)
+            restoreResources();
+    }
 
-                mSelectedDayView = dayView;
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        cancelFlingPrefetch();
+        if (mRetentionPolicy == RETENTION_DETACH)
+            releaseResources();
+    }
 
-                return;
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        super.onLayout(changed, l, t, r, b);
+
+        //Cells may have moved
+        updateHighlight(false);
+
+        //Content width is known now
+        if (mPendingScrollDay != DisabledDays.NO_DAY && mModel != null && mModelTask == null) {
+            final int epochDay = mPendingScrollDay;
+            final boolean smooth = mPendingScrollSmooth;
+            mPendingScrollDay = DisabledDays.NO_DAY;
+            if (mRenderMode == RENDER_MODE_VIRTUALIZED) {
+                //Scrolling binds cells, avoid adding views in the middle of a layout pass
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        scrollToDay(epochDay, smooth);
+                    }
+                });
+            } else {
+                scrollToDay(epochDay, smooth);
             }
         }
     }
 
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        if (mRenderMode == RENDER_MODE_CANVAS && mDayStripView != null)
+            mDayStripView.setViewport(getScrollX(), w);
+        if (mRenderMode == RENDER_MODE_VIRTUALIZED && w != oldw) {
+            //Avoid adding views in the middle of a layout pass
+            post(new Runnable() {
+                @Override
+                public void run() {
+                    updateVirtualizedWindow();
+                }
+            });
+        }
+    }
+
     /**
      * On DayView click listener
      */
     @Override
     public void onClick(View view) {
         //Get day view
-        DayView dayView = new DayView(view);
+        DayView dayView = DayView.from(view);
 
-        //Get selected day and set selection
-        int selectedDay = dayView.getDay();
-        setSelectedDay(selectedDay, true);
+        //Set selection
+        onDayClicked(dayView.getIndex());
     }
 
     /**
@@ -425,10 +2325,23 @@ public class Ranger extends HorizontalScrollView implements View.OnClickListener
         Parcelable superState = super.onSaveInstanceState();
 
         SavedState savedState = new SavedState(superState);
-        savedState.setSelectedDay(mSelectedDay);
-        savedState.setStartDateString(mStartDate != null ? mStartDate.toString() : null);
-        savedState.setEndDateString(mEndDate != null ? mEndDate.toString() : null);
-        savedState.setDisabledDates(TextUtils.join(",", mDisabledDates));
+        savedState.setSelectedIndex(mModelTask == null ? mSelectedIndex : getPendingSelectedIndex());
+        savedState.setSelectedEndIndex(mModelTask == null ? mSelectedEndIndex : -1);
+        if (mHasRange) {
+            savedState.setRange(mStartEpochDay, mEndEpochDay, mDayCount, mStartMillisOfDay);
+            savedState.setZoneId(mZone != null ? mZone.getID() : mZoneId);
+        }
+        if (mSharedCalendar == null) {
+            savedState.setDisabledDays(mDisabledDays != null ? mDisabledDays : DisabledDays.of(mDisabledEpochDays, mDisabledEpochDays.length));
+            savedState.setDisabledRules(mDisabledRules);
+        } else {
+            //The calendar's owner restores those
+            savedState.setDisabledDays(DisabledDays.EMPTY);
+            savedState.setDisabledRules(DayRules.NONE);
+        }
+
+        if (mMetricsListener != null)
+            mMetricsListener.onStateSaved(getParceledSize(savedState));
 
         return savedState;
     }
@@ -438,28 +2351,80 @@ public class Ranger extends HorizontalScrollView implements View.OnClickListener
         SavedState savedState = (SavedState) state;
         super.onRestoreInstanceState(savedState.getSuperState());
 
-        mSelectedDay = savedState.getSelectedDay();
-        mStartDate = savedState.getStartDateString() != null ?  DateTime.parse(savedState.getStartDateString()) : null;
-        mEndDate = savedState.getEndDateDateString() != null ? DateTime.parse(savedState.getEndDateDateString()) : null;
-        String disabledDatesString = savedState.getDisabledDates();
-        mDisabledDates.clear();
+        //Range comes from the calendar, only the selection is this Ranger's
+        if (mSharedCalendar != null) {
+            if (mModel != null && mModelTask == null && savedState.hasRange() && savedState.getStartEpochDay() == mStartEpochDay) {
+                int selectedIndex = savedState.getSelectedIndex();
+                int selectedEndIndex = savedState.getSelectedEndIndex();
+                if (selectedEndIndex >= mDayCount || (selectedEndIndex >= 0 && hasUnavailableDay(selectedIndex, selectedEndIndex)))
+                    selectedEndIndex = -1;
+                if (selectedIndex >= 0 && selectedIndex < mDayCount && !mModel.isDisabled(selectedIndex))
+                    setSelection(selectedIndex, selectedEndIndex, false);
+            }
+            return;
+        }
 
-        if (disabledDatesString != null && !disabledDatesString.isEmpty()) {
-            for(String dateString : disabledDatesString.split(",")) {
-                mDisabledDates.add(DateTime.parse(dateString));
+        mDisabledDays = savedState.getDisabledDays();
+        mDisabledEpochDays = mDisabledDays.toArray();
+        mDisabledRules = savedState.getDisabledRules();
+        if (savedState.hasRange()) {
+            setRange(savedState.getStartEpochDay(), savedState.getEndEpochDay(), false);
+            mOpenEnded = mEndEpochDay == DayModel.OPEN_END;
+            mDayCount = savedState.getDayCount();
+            mStartMillisOfDay = savedState.getStartMillisOfDay();
+            //Resolved when a date is handed out
+            mZone = null;
+            mZoneId = savedState.getZoneId();
+
+            int selectedIndex = savedState.getSelectedIndex();
+            int selectedEndIndex = savedState.getSelectedEndIndex();
+            requestModel(selectedIndex >= 0 ? mStartEpochDay + selectedIndex : DisabledDays.NO_DAY);
+
+            //Range selections end with the model
+            if (mModelTask == null) {
+                setSelection(mSelectedIndex, selectedEndIndex, false);
+            } else if (selectedEndIndex >= 0) {
+                mPendingSelectionEnd = mStartEpochDay + selectedEndIndex;
             }
         }
+    }
 
-        render();
+    private static int getParceledSize(Parcelable state) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            state.writeToParcel(parcel, 0);
+            return parcel.dataSize();
+        } finally {
+            parcel.recycle();
+        }
+    }
 
-        setSelectedDay(mSelectedDay, false);
+    /**
+     * Index the pending selection will get in the range being built, -1 while it depends on the model
+     */
+    private int getPendingSelectedIndex() {
+        if (mPendingSelection == SELECT_FIRST_ENABLED || mPendingSelection == SELECT_KEEP || mPendingSelection == DisabledDays.NO_DAY) {
+            return -1;
+        }
+        return mPendingSelection - mStartEpochDay;
     }
 
     protected static class SavedState extends BaseSavedState {
-        int mSelectedDay;
-        String mStartDateString;
-        String mEndDateString;
-        String mDisabledDates;
+        //Disabled days encodings, whichever is smaller is written
+        static final int DISABLED_DAYS_NONE = 0;
+        static final int DISABLED_DAYS_RUNS = 1;
+        static final int DISABLED_DAYS_BITS = 2;
+
+        int mSelectedIndex;
+        int mSelectedEndIndex;
+        boolean mHasRange;
+        int mStartEpochDay;
+        int mEndEpochDay;
+        int mDayCount;
+        int mStartMillisOfDay;
+        String mZoneId;
+        DisabledDays mDisabledDays = DisabledDays.EMPTY;
+        DayRules mDisabledRules = DayRules.NONE;
 
         public SavedState(Parcelable superState) {
             super(superState);
@@ -467,17 +2432,54 @@ public class Ranger extends HorizontalScrollView implements View.OnClickListener
 
         public SavedState(Parcel in) {
             super(in);
-            mSelectedDay = in.readInt();
-            mStartDateString = in.readString();
-            mEndDateString = in.readString();
+            mSelectedIndex = in.readInt();
+            mSelectedEndIndex = in.readInt();
+            mHasRange = in.readInt() != 0;
+            mStartEpochDay = in.readInt();
+            mEndEpochDay = in.readInt();
+            mDayCount = in.readInt();
+            mStartMillisOfDay = in.readInt();
+            mZoneId = in.readString();
+
+            switch (in.readInt()) {
+                case DISABLED_DAYS_RUNS:
+                    mDisabledDays = DisabledDays.fromRuns(in.createIntArray());
+                    break;
+                case DISABLED_DAYS_BITS:
+                    int firstDay = in.readInt();
+                    mDisabledDays = DisabledDays.fromBits(firstDay, in.createLongArray());
+                    break;
+            }
+            mDisabledRules = DayRules.decode(in.createIntArray());
         }
 
         @Override
         public void writeToParcel(Parcel out, int flags) {
             super.writeToParcel(out, flags);
-            out.writeInt(mSelectedDay);
-            out.writeString(mStartDateString);
-            out.writeString(mEndDateString);
+            out.writeInt(mSelectedIndex);
+            out.writeInt(mSelectedEndIndex);
+            out.writeInt(mHasRange ? 1 : 0);
+            out.writeInt(mStartEpochDay);
+            out.writeInt(mEndEpochDay);
+            out.writeInt(mDayCount);
+            out.writeInt(mStartMillisOfDay);
+            out.writeString(mZoneId);
+
+            //Runs take 8 bytes each, the bitset 8 bytes per 64 days
+            long[] bits = mDisabledDays.toBits();
+            if (mDisabledDays.isEmpty()) {
+                out.writeInt(DISABLED_DAYS_NONE);
+            } else if (bits != null && bits.length < mDisabledDays.runCount()) {
+                out.writeInt(DISABLED_DAYS_BITS);
+                out.writeInt(mDisabledDays.getFirstDay());
+                out.writeLongArray(bits);
+            } else {
+                out.writeInt(DISABLED_DAYS_RUNS);
+                out.writeIntArray(mDisabledDays.toRuns());
+            }
+
+            //A few ints whatever the range
+            out.writeIntArray(mDisabledRules.encode());
         }
 
         public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
@@ -489,36 +2491,72 @@ public class Ranger extends HorizontalScrollView implements View.OnClickListener
             }
         };
 
-        public void setSelectedDay(int selectedDay) {
-            mSelectedDay = selectedDay;
+        public void setSelectedIndex(int selectedIndex) {
+            mSelectedIndex = selectedIndex;
+        }
+
+        public void setSelectedEndIndex(int selectedEndIndex) {
+            mSelectedEndIndex = selectedEndIndex;
+        }
+
+        public void setRange(int startEpochDay, int endEpochDay, int dayCount, int startMillisOfDay) {
+            mHasRange = true;
+            mStartEpochDay = startEpochDay;
+            mEndEpochDay = endEpochDay;
+            mDayCount = dayCount;
+            mStartMillisOfDay = startMillisOfDay;
+        }
+
+        public void setZoneId(String zoneId) {
+            mZoneId = zoneId;
+        }
+
+        public int getSelectedIndex() {
+            return mSelectedIndex;
         }
 
-        public void setStartDateString(String startDateString) {
-            mStartDateString = startDateString;
+        public int getSelectedEndIndex() {
+            return mSelectedEndIndex;
         }
 
-        public void setEndDateString(String endDateString) {
-            mEndDateString = endDateString;
+        public boolean hasRange() {
+            return mHasRange;
         }
 
-        public int getSelectedDay() {
-            return mSelectedDay;
+        public int getStartEpochDay() {
+            return mStartEpochDay;
         }
 
-        public String getStartDateString() {
-            return mStartDateString;
+        public int getEndEpochDay() {
+            return mEndEpochDay;
         }
 
-        public String getEndDateDateString() {
-            return mEndDateString;
+        public int getDayCount() {
+            return mDayCount;
         }
 
-        public String getDisabledDates() {
-            return mDisabledDates;
+        public int getStartMillisOfDay() {
+            return mStartMillisOfDay;
         }
 
-        public void setDisabledDates(String mDisabledDates) {
-            this.mDisabledDates = mDisabledDates;
+        public String getZoneId() {
+            return mZoneId;
+        }
+
+        DisabledDays getDisabledDays() {
+            return mDisabledDays;
+        }
+
+        void setDisabledDays(DisabledDays disabledDays) {
+            mDisabledDays = disabledDays;
+        }
+
+        DayRules getDisabledRules() {
+            return mDisabledRules;
+        }
+
+        void setDisabledRules(DayRules disabledRules) {
+            mDisabledRules = disabledRules;
         }
     }
 
@@ -529,11 +2567,19 @@ public class Ranger extends HorizontalScrollView implements View.OnClickListener
     public static class DayView {
 
         int mDay;
+        int mIndex;
+
+        //Last labels set, to skip redundant setText calls on recycled cells
+        String mDayOfWeekText;
+        String mDayNumberText;
+        String mMonthShortNameText;
+        String mBadgeText;
 
         final LinearLayout mView;
         final TextView mDayOfWeek;
         final TextView mDayNumber;
         final TextView mMonthShortName;
+        final TextView mBadge;
 
         public DayView(View view) {
             mView = (LinearLayout) view;
@@ -541,27 +2587,58 @@ public class Ranger extends HorizontalScrollView implements View.OnClickListener
             mDayOfWeek = (TextView) mView.findViewById(DAY_OF_WEEK_RES_ID);
             mDayNumber = (TextView) mView.findViewById(DAY_NUMBER_RES_ID);
             mMonthShortName = (TextView) mView.findViewById(MONTH_NAME_RES_ID);
+            mBadge = (TextView) mView.findViewById(DAY_BADGE_RES_ID);
+
+            mView.setTag(this);
+        }
+
+        /**
+         * DayView already holding the view, or a new one when the view has none
+         */
+        public static DayView from(View view) {
+            Object tag = view.getTag();
+            return tag instanceof DayView ? (DayView) tag : new DayView(view);
         }
 
         public int getDay() {
-            return Integer.parseInt(mDayNumber.getText().toString());
+            return mDay;
+        }
+
+        /**
+         * Position of the day from the start of the range
+         */
+        public int getIndex() {
+            return mIndex;
+        }
+
+        void setIndex(int index) {
+            mIndex = index;
         }
 
         public void setDay(int day) {
             mDay = day;
-            setDayNumber(String.format(Locale.US,"%02d", day));
+            setDayNumber(DayLabels.dayNumber(day));
         }
 
         public void setDayOfWeek(String dayOfWeek) {
-            mDayOfWeek.setText(dayOfWeek);
+            if (!dayOfWeek.equals(mDayOfWeekText)) {
+                mDayOfWeekText = dayOfWeek;
+                mDayOfWeek.setText(dayOfWeek);
+            }
         }
 
         public void setDayNumber(String dayNumber) {
-            mDayNumber.setText(dayNumber);
+            if (!dayNumber.equals(mDayNumberText)) {
+                mDayNumberText = dayNumber;
+                mDayNumber.setText(dayNumber);
+            }
         }
 
         public void setMonthShortName(String monthShortName) {
-            mMonthShortName.setText(monthShortName);
+            if (!monthShortName.equals(mMonthShortNameText)) {
+                mMonthShortNameText = monthShortName;
+                mMonthShortName.setText(monthShortName);
+            }
         }
 
         public void setBackgroundColor(int color) {
@@ -586,8 +2663,39 @@ public class Ranger extends HorizontalScrollView implements View.OnClickListener
             mDayOfWeek.setVisibility(View.GONE);
         }
 
+        public void showDayOfWeek() {
+            mDayOfWeek.setVisibility(View.VISIBLE);
+        }
+
         public void hideMonthShortName() {
             mMonthShortName.setVisibility(View.GONE);
         }
+
+        public void showMonthShortName() {
+            mMonthShortName.setVisibility(View.VISIBLE);
+        }
+
+        /**
+         * Null keeps the badge row but leaves it empty, so cells stay the same height
+         */
+        public void setBadge(String badge) {
+            if (badge == null) {
+                mBadge.setVisibility(View.INVISIBLE);
+                return;
+            }
+            if (!badge.equals(mBadgeText)) {
+                mBadgeText = badge;
+                mBadge.setText(badge);
+            }
+            mBadge.setVisibility(View.VISIBLE);
+        }
+
+        public void hideBadge() {
+            mBadge.setVisibility(View.GONE);
+        }
+
+        public void setBadgeTextColor(int color) {
+            mBadge.setTextColor(color);
+        }
     }
 }
@@ -0,0 +1,83 @@
+package com.andressantibanez.ranger;
+
+import android.view.View;
+
+/**
+ * Overlay selection highlight: views behind the cells for the selected range, the selected day
+ * and the last day of the range. Each is laid out one pixel wide and placed with translation and
+ * scale, so a move only changes view properties. Neither the cells nor the days container are
+ * measured, laid out or redrawn, and moves can be animated on the render thread's properties.
+ */
+final class SelectionHighlight {
+
+    /**
+     * Constants
+     */
+    //Spans
+    static final int RANGE = 0;
+    static final int SELECTED_DAY = 1;
+    static final int SELECTED_END_DAY = 2;
+
+    /**
+     * Variables
+     */
+    final View[] mViews;
+    //Target left and right edge of each span, empty when right is not past left
+    final int[] mLefts = new int[3];
+    final int[] mRights = new int[3];
+    long mDuration;
+
+    SelectionHighlight(View rangeView, View selectedDayView, View selectedEndDayView) {
+        mViews = new View[]{rangeView, selectedDayView, selectedEndDayView};
+        for (View view : mViews) {
+            //Scale grows the span from its left edge
+            view.setPivotX(0);
+        }
+    }
+
+    void setColors(int selectedColor, int rangeColor) {
+        mViews[RANGE].setBackgroundColor(rangeColor);
+        mViews[SELECTED_DAY].setBackgroundColor(selectedColor);
+        mViews[SELECTED_END_DAY].setBackgroundColor(selectedColor);
+    }
+
+    /**
+     * Duration of moves, 0 moves right away
+     */
+    void setDuration(long duration) {
+        mDuration = duration;
+    }
+
+    /**
+     * Moves a span to the left and right edge, in days container coordinates
+     */
+    void moveTo(int span, int left, int right, boolean animate) {
+        if (mLefts[span] == left && mRights[span] == right) {
+            return;
+        }
+        mLefts[span] = left;
+        mRights[span] = right;
+
+        View view = mViews[span];
+        view.animate().cancel();
+        if (right <= left) {
+            view.setVisibility(View.INVISIBLE);
+            return;
+        }
+
+        //Spans appearing don't slide
+        if (animate && mDuration > 0 && view.getVisibility() == View.VISIBLE) {
+            view.animate().translationX(left).scaleX(right - left).setDuration(mDuration);
+        } else {
+            view.setTranslationX(left);
+            view.setScaleX(right - left);
+            view.setVisibility(View.VISIBLE);
+        }
+    }
+
+    void clear() {
+        for (int span = 0; span < mViews.length; span++) {
+            moveTo(span, 0, 0, false);
+        }
+    }
+}
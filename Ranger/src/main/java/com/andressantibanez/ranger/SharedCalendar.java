@@ -0,0 +1,163 @@
+package com.andressantibanez.ranger;
+
+import com.andressantibanez.ranger.core.DayModel;
+import com.andressantibanez.ranger.core.DayRules;
+import com.andressantibanez.ranger.core.DisabledDays;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Future;
+
+/**
+ * Range and disabled dates shared by several {@link Ranger}s, for example departure and return
+ * pickers over the same days. The day model is built once per change and handed to every
+ * attached Ranger in one pass, each one keeps only its own selection and cells. Main thread only.
+ * <p>
+ * Attached Rangers are held weakly, a calendar kept by a longer lived object doesn't keep the
+ * Rangers and their Activity alive. Rangers that are still referenced keep receiving changes
+ * until {@link Ranger#setSharedCalendar(SharedCalendar)} is called with null.
+ */
+public final class SharedCalendar {
+
+    /**
+     * Variables
+     */
+    //Weak, the calendar may outlive the screens of its Rangers
+    final Set<Ranger> mRangers = Collections.newSetFromMap(new WeakHashMap<Ranger, Boolean>());
+
+    //Range, as Ranger holds it
+    boolean mHasRange;
+    int mStartEpochDay;
+    int mEndEpochDay;
+    int mDayCount;
+    int mStartMillisOfDay;
+    DateTimeZone mZone;
+    int[] mDisabledEpochDays = new int[0];
+    //Built from mDisabledEpochDays by the last model, null until then
+    DisabledDays mDisabledDays;
+    DayRules mDisabledRules = DayRules.NONE;
+
+    //Latest published model
+    DayModel mModel;
+    Future<?> mModelTask;
+    int mModelGeneration;
+
+    /**
+     * Shows the days from startDate to endDate on every attached Ranger, as
+     * {@link Ranger#setStartAndEndDateWithDisabledDates(DateTime, DateTime, List)} does
+     */
+    public void setRange(DateTime startDate, DateTime endDate, List<DateTime> disabledDates) {
+        if (endDate.isBefore(startDate))
+            throw new IllegalArgumentException("Range can't end before it starts");
+
+        mHasRange = true;
+        mStartMillisOfDay = startDate.getMillisOfDay();
+        mStartEpochDay = Ranger.toEpochDay(startDate);
+        mEndEpochDay = Ranger.toEpochDay(endDate);
+        mDayCount = Math.max(0, mEndEpochDay - mStartEpochDay + (endDate.getMillisOfDay() > mStartMillisOfDay ? 1 : 0));
+        mZone = startDate.getZone();
+        setDisabledEpochDays(disabledDates);
+    }
+
+    public void setDisabledDates(List<DateTime> disabledDates) {
+        setDisabledEpochDays(disabledDates);
+    }
+
+    /**
+     * See {@link Ranger#setDisabledDateRules(DisabledDateRules)}
+     */
+    public void setDisabledDateRules(DisabledDateRules rules) {
+        mDisabledRules = rules != null ? rules.getDayRules() : DayRules.NONE;
+        requestModel();
+    }
+
+    private void setDisabledEpochDays(List<DateTime> disabledDates) {
+        int[] days = new int[disabledDates != null ? disabledDates.size() : 0];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = Ranger.toEpochDay(disabledDates.get(i));
+        }
+        mDisabledEpochDays = days;
+        mDisabledDays = null;
+        requestModel();
+    }
+
+    /**
+     * Attached Rangers
+     */
+    void attach(Ranger ranger) {
+        mRangers.add(ranger);
+        if (mModel != null && mModelTask == null)
+            ranger.applySharedModel(this, mModel);
+    }
+
+    void detach(Ranger ranger) {
+        mRangers.remove(ranger);
+    }
+
+    /**
+     * Day model
+     */
+    private void requestModel() {
+        if (!mHasRange) {
+            return;
+        }
+
+        mModelGeneration++;
+        if (mModelTask != null) {
+            mModelTask.cancel(true);
+            mModelTask = null;
+        }
+
+        final int generation = mModelGeneration;
+        final int startEpochDay = mStartEpochDay;
+        final int endEpochDay = mEndEpochDay;
+        final int dayCount = mDayCount;
+        final int[] disabledEpochDays = mDisabledEpochDays;
+        final DisabledDays disabledDays = mDisabledDays;
+        final DayRules disabledRules = mDisabledRules;
+        final DayModel previous = mModel;
+
+        //Small ranges cost less than a trip to the executor
+        if (dayCount + (disabledDays == null ? disabledEpochDays.length : 0) <= Ranger.SYNCHRONOUS_MODEL_SIZE) {
+            publish(Ranger.buildModel(previous, startEpochDay, endEpochDay, dayCount, disabledEpochDays, disabledDays, disabledRules, 0, dayCount));
+            return;
+        }
+
+        mModelTask = Ranger.MODEL_EXECUTOR.submit(new Runnable() {
+            @Override
+            public void run() {
+                final DayModel model = Ranger.buildModel(previous, startEpochDay, endEpochDay, dayCount, disabledEpochDays, disabledDays, disabledRules, 0, dayCount);
+                if (model == null) {
+                    return;
+                }
+
+                Ranger.MAIN_HANDLER.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        //Drop models superseded while posting
+                        if (generation == mModelGeneration) {
+                            mModelTask = null;
+                            publish(model);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void publish(DayModel model) {
+        mModel = model;
+        mDisabledDays = model.getDisabledDays();
+
+        //Copy, a Ranger may detach while applying
+        Ranger[] rangers = mRangers.toArray(new Ranger[mRangers.size()]);
+        for (Ranger ranger : rangers) {
+            ranger.applySharedModel(this, model);
+        }
+    }
+}
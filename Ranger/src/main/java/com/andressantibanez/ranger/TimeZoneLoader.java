@@ -0,0 +1,73 @@
+package com.andressantibanez.ranger;
+
+import android.content.Context;
+import android.os.AsyncTask;
+
+import net.danlew.android.joda.JodaTimeAndroid;
+
+/**
+ * Loads Joda time zone data once per process. Ranger works on epoch days and only needs
+ * zones when it hands a DateTime to the app, so loading is started off the main thread
+ * and waited for whenever a DateTime goes in or out of Ranger's API.
+ */
+final class TimeZoneLoader {
+
+    private static volatile boolean sLoaded;
+    private static boolean sLoadRequested;
+    //Application context of the first Ranger, null until one is created
+    private static Context sContext;
+
+    private TimeZoneLoader() {
+    }
+
+    static synchronized void loadInBackground(Context context) {
+        if (sLoaded || sLoadRequested) {
+            return;
+        }
+        sLoadRequested = true;
+
+        final Context applicationContext = getApplicationContext(context);
+        sContext = applicationContext;
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                ensureLoaded(applicationContext);
+            }
+        });
+    }
+
+    /**
+     * Loads time zone data on the calling thread unless it is already loaded
+     */
+    static void ensureLoaded(Context context) {
+        if (sLoaded) {
+            return;
+        }
+        synchronized (TimeZoneLoader.class) {
+            if (!sLoaded) {
+                JodaTimeAndroid.init(getApplicationContext(context));
+                sLoaded = true;
+            }
+        }
+    }
+
+    /**
+     * Waits for the load started by a Ranger, if any. A volatile read once loaded.
+     */
+    static void await() {
+        if (sLoaded) {
+            return;
+        }
+        Context context;
+        synchronized (TimeZoneLoader.class) {
+            context = sContext;
+        }
+        if (context != null)
+            ensureLoaded(context);
+    }
+
+    private static Context getApplicationContext(Context context) {
+        Context applicationContext = context.getApplicationContext();
+        return applicationContext != null ? applicationContext : context;
+    }
+}
@@ -63,6 +63,15 @@ public class MainActivity extends AppCompatActivity {
                 startActivity(intent);
             }
         });
+
+        Button stressButton = (Button)findViewById(R.id.stress_button);
+        stressButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                Intent intent = new Intent(MainActivity.this, StressActivity.class);
+                startActivity(intent);
+            }
+        });
     }
 
     @Override
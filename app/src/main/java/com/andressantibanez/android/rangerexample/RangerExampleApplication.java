@@ -0,0 +1,18 @@
+package com.andressantibanez.android.rangerexample;
+
+import android.app.Application;
+
+import net.danlew.android.joda.JodaTimeAndroid;
+
+/**
+ * Loads Joda-Time zone data before any Activity runs, including Activities restored directly
+ * after the process was killed. Ranger no longer does it, the app creates DateTimes itself.
+ */
+public class RangerExampleApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        JodaTimeAndroid.init(this);
+    }
+}
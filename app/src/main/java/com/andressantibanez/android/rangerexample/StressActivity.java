@@ -0,0 +1,457 @@
+package com.andressantibanez.android.rangerexample;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.support.v7.app.AppCompatActivity;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.Button;
+import android.widget.RadioGroup;
+import android.widget.TextView;
+
+import com.andressantibanez.ranger.Ranger;
+
+import org.joda.time.DateTime;
+import org.joda.time.Days;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Scripted workload for comparing render modes: ranges of 1, 5 and 10 years with up to 50k
+ * disabled dates, each flung, tapped and churned while frame intervals, render and selection
+ * times are recorded. Percentiles are exported as JSON to the app's files directory and logged.
+ */
+public class StressActivity extends AppCompatActivity {
+
+    /**
+     * Constants
+     */
+    private static final String TAG = "RangerStress";
+    //Workload
+    private static final int[] RANGE_YEARS = {1, 5, 10};
+    private static final int[] DISABLED_COUNTS = {0, 5000, 50000};
+    private static final int FLINGS = 6;
+    private static final int TAPS = 20;
+    private static final int CHURNS = 5;
+    //Share of disabled dates replaced on each churn
+    private static final double CHURN_RATIO = 0.05;
+    private static final int FLING_VELOCITY_DP = 6000;
+    private static final long FLING_DELAY_MILLIS = 700;
+    private static final long TAP_DELAY_MILLIS = 60;
+    //Time between the down and up events of a tap
+    private static final long TAP_PRESS_MILLIS = 40;
+    private static final long CHURN_DELAY_MILLIS = 300;
+    private static final long SETTLE_DELAY_MILLIS = 500;
+    private static final long SEED = 42;
+    //A frame at 60Hz
+    private static final long FRAME_NANOS = 16666667;
+
+    /**
+     * Variables
+     */
+    Ranger mRanger;
+    RadioGroup mRenderModeGroup;
+    Button mRunButton;
+    TextView mStatusText;
+    final Handler mHandler = new Handler();
+
+    //Current run
+    Random mRandom;
+    JSONArray mResults;
+    int mRenderMode;
+    int mScenario;
+    int mStep;
+    DateTime mStartDate;
+    int mDayCount;
+    List<DateTime> mDisabledDates;
+
+    //Samples of the current scenario, in nanoseconds
+    final Samples mFrameNanos = new Samples();
+    final Samples mRenderNanos = new Samples();
+    final Samples mSelectionNanos = new Samples();
+    //A FrameRecorder, typed loosely so releases without Choreographer never load it
+    Object mFrameRecorder;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_stress);
+
+        mRanger = (Ranger) findViewById(R.id.stress_ranger);
+        mRenderModeGroup = (RadioGroup) findViewById(R.id.render_mode_group);
+        mStatusText = (TextView) findViewById(R.id.status_text);
+        mRunButton = (Button) findViewById(R.id.run_button);
+        mRunButton.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                startRun();
+            }
+        });
+
+        mRanger.setMetricsListener(new Ranger.MetricsListener() {
+            @Override
+            public void onRender(long durationNanos, int inflatedCells, int recycledCells) {
+                mRenderNanos.add(durationNanos);
+            }
+
+            @Override
+            public void onCellsBound(long durationNanos, int inflatedCells, int recycledCells) {
+            }
+
+            @Override
+            public void onModelBuilt(long durationNanos, int disabledCount, int dayCount) {
+            }
+
+            @Override
+            public void onSelectionChanged(long latencyNanos) {
+                mSelectionNanos.add(latencyNanos);
+            }
+
+            @Override
+            public void onStateSaved(int bytes) {
+            }
+        });
+
+        //Frame callbacks need Jelly Bean
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            mFrameRecorder = new FrameRecorder(mFrameNanos);
+        } else {
+            mStatusText.setText("Frame timings need Android 4.1, only render and selection times are recorded");
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        mHandler.removeCallbacksAndMessages(null);
+        stopFrameRecorder();
+    }
+
+    /**
+     * Run
+     */
+    private void startRun() {
+        switch (mRenderModeGroup.getCheckedRadioButtonId()) {
+            case R.id.inflated_button:
+                mRenderMode = Ranger.RENDER_MODE_INFLATED;
+                break;
+            case R.id.canvas_button:
+                mRenderMode = Ranger.RENDER_MODE_CANVAS;
+                break;
+            default:
+                mRenderMode = Ranger.RENDER_MODE_VIRTUALIZED;
+        }
+
+        mRunButton.setEnabled(false);
+        mRanger.setRenderMode(mRenderMode);
+        mRandom = new Random(SEED);
+        mResults = new JSONArray();
+        startScenario(0);
+    }
+
+    private void startScenario(int scenario) {
+        mScenario = scenario;
+        if (scenario == RANGE_YEARS.length * DISABLED_COUNTS.length) {
+            finishRun();
+            return;
+        }
+
+        int years = RANGE_YEARS[scenario / DISABLED_COUNTS.length];
+        int disabledCount = DISABLED_COUNTS[scenario % DISABLED_COUNTS.length];
+        mStatusText.setText(years + " years, " + disabledCount + " disabled dates");
+
+        //Dates are created before recording starts. The end day isn't shown as it starts at the
+        //same time of day, so the range covers the years, leap days included
+        mStartDate = new DateTime().withTimeAtStartOfDay();
+        DateTime endDate = mStartDate.plusYears(years);
+        mDayCount = Days.daysBetween(mStartDate, endDate).getDays();
+        mDisabledDates = new ArrayList<>(disabledCount);
+        for (int i = 0; i < disabledCount; i++) {
+            mDisabledDates.add(randomDisabledDate(disabledCount));
+        }
+
+        mFrameNanos.clear();
+        mRenderNanos.clear();
+        mSelectionNanos.clear();
+        mRanger.scrollTo(0, 0);
+        startFrameRecorder();
+
+        mRanger.setStartAndEndDateWithDisabledDates(mStartDate, endDate, mDisabledDates);
+
+        mStep = 0;
+        mHandler.postDelayed(mNextStep, SETTLE_DELAY_MILLIS);
+    }
+
+    final Runnable mNextStep = new Runnable() {
+        @Override
+        public void run() {
+            int step = mStep++;
+
+            //Flings, alternating direction
+            if (step < FLINGS) {
+                float density = getResources().getDisplayMetrics().density;
+                int velocity = (int) (FLING_VELOCITY_DP * density);
+                mRanger.fling(step % 2 == 0 ? velocity : -velocity / 2);
+                mHandler.postDelayed(this, FLING_DELAY_MILLIS);
+                return;
+            }
+            step -= FLINGS;
+
+            //Taps on random days on screen, through the same touch events as a finger
+            if (step < TAPS) {
+                tap(mRandom.nextInt(mRanger.getWidth()), mRanger.getHeight() / 2);
+                return;
+            }
+            step -= TAPS;
+
+            //Disabled date churn
+            if (step < CHURNS) {
+                List<DateTime> disabledDates = new ArrayList<>(mDisabledDates);
+                int replaced = (int) (disabledDates.size() * CHURN_RATIO);
+                for (int i = 0; i < replaced; i++) {
+                    disabledDates.set(mRandom.nextInt(disabledDates.size()), randomDisabledDate(disabledDates.size()));
+                }
+                mDisabledDates = disabledDates;
+                mRanger.setDisabledDates(disabledDates);
+                mHandler.postDelayed(this, CHURN_DELAY_MILLIS);
+                return;
+            }
+
+            finishScenario();
+        }
+    };
+
+    /**
+     * Dispatches a down and, a press later, an up event at x, y of the Ranger, then goes on to the
+     * next step. Cells and the canvas strip handle them as they would a finger, and a tap landing on
+     * a fling still running stops it without selecting.
+     */
+    private void tap(final float x, final float y) {
+        final long downTime = SystemClock.uptimeMillis();
+        sendTouchEvent(downTime, downTime, MotionEvent.ACTION_DOWN, x, y);
+        mHandler.postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                sendTouchEvent(downTime, SystemClock.uptimeMillis(), MotionEvent.ACTION_UP, x, y);
+                mHandler.postDelayed(mNextStep, TAP_DELAY_MILLIS);
+            }
+        }, TAP_PRESS_MILLIS);
+    }
+
+    private void sendTouchEvent(long downTime, long eventTime, int action, float x, float y) {
+        MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, x, y, 0);
+        mRanger.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    /**
+     * Disabled dates are spread at most every other day from the start of the range on
+     */
+    private DateTime randomDisabledDate(int disabledCount) {
+        return mStartDate.plusDays(mRandom.nextInt(Math.max(mDayCount, 2 * disabledCount)));
+    }
+
+    private void finishScenario() {
+        stopFrameRecorder();
+
+        try {
+            JSONObject result = new JSONObject();
+            result.put("rangeYears", RANGE_YEARS[mScenario / DISABLED_COUNTS.length]);
+            result.put("rangeDays", mDayCount);
+            result.put("disabledDates", DISABLED_COUNTS[mScenario % DISABLED_COUNTS.length]);
+            result.put("frames", mFrameNanos.size());
+            result.put("jankyFrames", mFrameNanos.countAbove(FRAME_NANOS + FRAME_NANOS / 2));
+            result.put("frameMillis", mFrameNanos.toJson());
+            result.put("renderMillis", mRenderNanos.toJson());
+            result.put("selectionMillis", mSelectionNanos.toJson());
+            mResults.put(result);
+        } catch (JSONException e) {
+            Log.e(TAG, "Can't record scenario", e);
+        }
+
+        mHandler.postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                startScenario(mScenario + 1);
+            }
+        }, SETTLE_DELAY_MILLIS);
+    }
+
+    private void finishRun() {
+        mRunButton.setEnabled(true);
+
+        String json;
+        try {
+            JSONObject report = new JSONObject();
+            report.put("device", Build.MANUFACTURER + " " + Build.MODEL);
+            report.put("sdk", Build.VERSION.SDK_INT);
+            report.put("renderMode", getRenderModeName(mRenderMode));
+            report.put("scenarios", mResults);
+            json = report.toString(2);
+        } catch (JSONException e) {
+            Log.e(TAG, "Can't build report", e);
+            return;
+        }
+        Log.i(TAG, json);
+
+        //External files need no permission from KitKat on
+        File directory = getExternalFilesDir(null);
+        if (directory == null)
+            directory = getFilesDir();
+        File file = new File(directory, "ranger-stress-" + getRenderModeName(mRenderMode) + "-" + System.currentTimeMillis() + ".json");
+
+        FileOutputStream out = null;
+        try {
+            out = new FileOutputStream(file);
+            out.write(json.getBytes("UTF-8"));
+            mStatusText.setText("Report written to " + file.getAbsolutePath());
+        } catch (IOException e) {
+            Log.e(TAG, "Can't write report", e);
+            mStatusText.setText("Report logged with tag " + TAG);
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private static String getRenderModeName(int renderMode) {
+        switch (renderMode) {
+            case Ranger.RENDER_MODE_INFLATED:
+                return "inflated";
+            case Ranger.RENDER_MODE_CANVAS:
+                return "canvas";
+            default:
+                return "virtualized";
+        }
+    }
+
+    /**
+     * Frame timings
+     */
+    private void startFrameRecorder() {
+        if (mFrameRecorder != null)
+            ((FrameRecorder) mFrameRecorder).start();
+    }
+
+    private void stopFrameRecorder() {
+        if (mFrameRecorder != null)
+            ((FrameRecorder) mFrameRecorder).stop();
+    }
+
+    /**
+     * Records the interval between consecutive frames. Intervals past one frame are dropped frames.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    static final class FrameRecorder implements Choreographer.FrameCallback {
+
+        final Samples mFrameNanos;
+        long mLastFrameNanos;
+        boolean mRunning;
+
+        FrameRecorder(Samples frameNanos) {
+            mFrameNanos = frameNanos;
+        }
+
+        void start() {
+            mRunning = true;
+            mLastFrameNanos = 0;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        void stop() {
+            mRunning = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (!mRunning) {
+                return;
+            }
+
+            if (mLastFrameNanos != 0)
+                mFrameNanos.add(frameTimeNanos - mLastFrameNanos);
+            mLastFrameNanos = frameTimeNanos;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Growable list of durations in nanoseconds
+     */
+    static final class Samples {
+
+        long[] mValues = new long[1024];
+        int mSize;
+
+        void add(long value) {
+            if (mSize == mValues.length)
+                mValues = Arrays.copyOf(mValues, mSize * 2);
+            mValues[mSize++] = value;
+        }
+
+        void clear() {
+            mSize = 0;
+        }
+
+        int size() {
+            return mSize;
+        }
+
+        int countAbove(long threshold) {
+            int count = 0;
+            for (int i = 0; i < mSize; i++) {
+                if (mValues[i] > threshold)
+                    count++;
+            }
+            return count;
+        }
+
+        /**
+         * Percentiles and maximum in milliseconds, empty without samples
+         */
+        JSONObject toJson() throws JSONException {
+            JSONObject json = new JSONObject();
+            if (mSize == 0) {
+                return json;
+            }
+
+            long[] sorted = Arrays.copyOf(mValues, mSize);
+            Arrays.sort(sorted);
+            json.put("p50", toMillis(percentile(sorted, 50)));
+            json.put("p90", toMillis(percentile(sorted, 90)));
+            json.put("p95", toMillis(percentile(sorted, 95)));
+            json.put("p99", toMillis(percentile(sorted, 99)));
+            json.put("max", toMillis(sorted[sorted.length - 1]));
+            return json;
+        }
+
+        //Nearest rank
+        private static long percentile(long[] sorted, int percent) {
+            int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / 1000000.0;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.andressantibanez.ranger.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Disabled date updates: the days whose state changed between two sets, one in a hundred
+ * days moved, as restyled by setDisabledDates()
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class DiffBenchmark {
+
+    /**
+     * Variables
+     */
+    DisabledDays mUpdatedDays;
+
+    @Setup(Level.Trial)
+    public void setUp(RangeState range) {
+        int[] days = Arrays.copyOf(range.mDisabledEpochDays, range.disabledCount);
+        for (int i = 0; i < days.length; i += 100) {
+            days[i]++;
+        }
+        mUpdatedDays = DisabledDays.of(days, days.length);
+    }
+
+    @Benchmark
+    public int[] changedDays(RangeState range) {
+        return range.mDisabledDays.changedDays(mUpdatedDays, range.mStartEpochDay, range.mEndEpochDay);
+    }
+
+    @Benchmark
+    public int[] changedDaysAllTime(RangeState range) {
+        return range.mDisabledDays.changedDays(mUpdatedDays, Integer.MIN_VALUE + 1, Integer.MAX_VALUE - 1);
+    }
+}
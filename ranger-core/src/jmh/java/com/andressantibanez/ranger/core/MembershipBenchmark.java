@@ -0,0 +1,50 @@
+package com.andressantibanez.ranger.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Disabled checks, the work done for every bound or drawn day
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MembershipBenchmark {
+
+    @Benchmark
+    public boolean disabledDaysContains(RangeState range) {
+        return range.mDisabledDays.contains(range.mStartEpochDay + range.randomIndex());
+    }
+
+    @Benchmark
+    public boolean disabledRulesIsDisabled(RangeState range) {
+        return range.mDisabledRules.isDisabled(range.mStartEpochDay + range.randomIndex());
+    }
+
+    @Benchmark
+    public boolean modelIsDisabled(RangeState range) {
+        return range.mModel.isDisabled(range.randomIndex());
+    }
+
+    /**
+     * Every day of the range, as a full render of the inflated mode does
+     */
+    @Benchmark
+    public int modelScanRange(RangeState range) {
+        int disabled = 0;
+        for (int index = 0; index < range.rangeDays; index++) {
+            if (range.mModel.isDisabled(index))
+                disabled++;
+        }
+        return disabled;
+    }
+
+    @Benchmark
+    public int nextEnabledDay(RangeState range) {
+        int fromDay = range.mStartEpochDay + range.randomIndex();
+        return range.mDisabledDays.nextEnabledDay(fromDay, range.mEndEpochDay);
+    }
+}
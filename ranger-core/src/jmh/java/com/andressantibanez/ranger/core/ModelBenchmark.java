@@ -0,0 +1,32 @@
+package com.andressantibanez.ranger.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Model construction: parsing the disabled set and packing every day of the range
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ModelBenchmark {
+
+    @Benchmark
+    public DisabledDays buildDisabledDays(RangeState range) {
+        return DisabledDays.of(range.mDisabledEpochDays, range.disabledCount);
+    }
+
+    @Benchmark
+    public DayModel buildModel(RangeState range) {
+        return DayModel.build(range.mStartEpochDay, range.mEndEpochDay, range.rangeDays, range.mDisabledDays);
+    }
+
+    @Benchmark
+    public DayModel buildModelAndDisabledDays(RangeState range) {
+        DisabledDays disabledDays = DisabledDays.of(range.mDisabledEpochDays, range.disabledCount);
+        return DayModel.build(range.mStartEpochDay, range.mEndEpochDay, range.rangeDays, disabledDays);
+    }
+}
@@ -0,0 +1,82 @@
+package com.andressantibanez.ranger.core;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * A range from one week to ten years and a disabled set of up to 100k days, one per benchmark thread
+ * since {@link #randomIndex()} advances a counter. Disabled days are spread at random, at most
+ * every other day, from the start of the range on.
+ */
+@State(Scope.Thread)
+public class RangeState {
+
+    /**
+     * Constants
+     */
+    private static final long SEED = 42;
+    //Precomputed random indexes, so benchmarks don't measure the generator
+    private static final int INDEX_COUNT = 1024;
+
+    /**
+     * Parameters
+     */
+    @Param({"7", "365", "3653"})
+    public int rangeDays;
+
+    @Param({"0", "1000", "100000"})
+    public int disabledCount;
+
+    /**
+     * Variables
+     */
+    int mStartEpochDay;
+    int mEndEpochDay;
+    int[] mDisabledEpochDays;
+    DisabledDays mDisabledDays;
+    DayRules mDisabledRules;
+    DayModel mModel;
+    int[] mIndexes;
+    int mNextIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED);
+        mStartEpochDay = EpochDays.of(2018, 1, 1);
+        mEndEpochDay = mStartEpochDay + rangeDays - 1;
+
+        int span = Math.max(rangeDays, 2 * disabledCount);
+        mDisabledEpochDays = new int[disabledCount];
+        for (int i = 0; i < disabledCount; i++) {
+            mDisabledEpochDays[i] = mStartEpochDay + random.nextInt(span);
+        }
+        mDisabledDays = DisabledDays.of(mDisabledEpochDays, disabledCount);
+        mModel = DayModel.build(mStartEpochDay, mEndEpochDay, rangeDays, mDisabledDays);
+
+        //Weekends, a fortnightly closing day and a yearly holiday week, with a few exceptions
+        DayRules.Builder rules = new DayRules.Builder().weekday(6).weekday(7).every(14, mStartEpochDay);
+        for (int year = 0; year * 365 < rangeDays; year++) {
+            rules.interval(mStartEpochDay + year * 365 + 200, mStartEpochDay + year * 365 + 206);
+            rules.except(mStartEpochDay + year * 365 + 5);
+        }
+        mDisabledRules = rules.build();
+
+        mIndexes = new int[INDEX_COUNT];
+        for (int i = 0; i < INDEX_COUNT; i++) {
+            mIndexes[i] = random.nextInt(rangeDays);
+        }
+    }
+
+    /**
+     * Random index in the range
+     */
+    int randomIndex() {
+        mNextIndex = (mNextIndex + 1) & (INDEX_COUNT - 1);
+        return mIndexes[mNextIndex];
+    }
+}
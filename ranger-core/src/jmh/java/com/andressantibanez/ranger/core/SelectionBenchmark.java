@@ -0,0 +1,46 @@
+package com.andressantibanez.ranger.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Range selection changes: validating the new span against the disabled set and working
+ * out the days to restyle
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class SelectionBenchmark {
+
+    /**
+     * Variables
+     */
+    int mStart = -1;
+    int mEnd = -1;
+    final int[] mIntervals = new int[SelectionDiff.MAX_INTERVAL_VALUES];
+
+    @Benchmark
+    public int selectRange(RangeState range) {
+        int start = range.randomIndex();
+        int end = Math.min(range.rangeDays - 1, start + range.randomIndex() / 2);
+        if (range.mDisabledDays.containsAny(range.mStartEpochDay + start, range.mStartEpochDay + end)) {
+            end = start;
+        }
+
+        int count = SelectionDiff.changedIntervals(mStart, mEnd, start, end, mIntervals);
+        mStart = start;
+        mEnd = end;
+        return count;
+    }
+
+    @Benchmark
+    public boolean validateWholeRange(RangeState range) {
+        return range.mDisabledDays.containsAny(range.mStartEpochDay, range.mEndEpochDay);
+    }
+}
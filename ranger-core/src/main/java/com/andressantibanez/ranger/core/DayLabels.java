@@ -0,0 +1,80 @@
+package com.andressantibanez.ranger.core;
+
+import java.text.DateFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Short week day names, short month names and two digit day numbers for one locale.
+ * A single instance is shared by every Ranger and rebuilt only when the locale changes,
+ * so binding a day looks labels up instead of formatting them.
+ */
+public final class DayLabels {
+
+    /**
+     * Constants
+     */
+    private static final int SHORT_NAME_LENGTH = 3;
+    private static final String[] DAY_NUMBERS = new String[31];
+    static {
+        for (int i = 0; i < DAY_NUMBERS.length; i++) {
+            DAY_NUMBERS[i] = i < 9 ? "0" + (i + 1) : String.valueOf(i + 1);
+        }
+    }
+
+    private static DayLabels sLabels;
+
+    /**
+     * Variables
+     */
+    private final Locale mLocale;
+    //Indexed by ISO day of week - 1 (Monday first)
+    private final String[] mDaysOfWeek = new String[7];
+    //Indexed by month of year - 1
+    private final String[] mMonths = new String[12];
+
+    private DayLabels(Locale locale) {
+        mLocale = locale;
+
+        //Same symbols Joda's getAsShortText() reads
+        DateFormatSymbols symbols = DateFormatSymbols.getInstance(locale);
+        String[] weekdays = symbols.getShortWeekdays();
+        for (int i = 0; i < 7; i++) {
+            //Calendar starts on Sunday = 1
+            mDaysOfWeek[i] = truncate(weekdays[(i + 1) % 7 + 1]);
+        }
+        String[] months = symbols.getShortMonths();
+        for (int i = 0; i < 12; i++) {
+            mMonths[i] = truncate(months[i]);
+        }
+    }
+
+    /**
+     * Shared labels for the locale, rebuilt when it differs from the cached one
+     */
+    public static synchronized DayLabels get(Locale locale) {
+        if (sLabels == null || !sLabels.mLocale.equals(locale)) {
+            sLabels = new DayLabels(locale);
+        }
+        return sLabels;
+    }
+
+    public Locale getLocale() {
+        return mLocale;
+    }
+
+    public static String dayNumber(int dayOfMonth) {
+        return DAY_NUMBERS[dayOfMonth - 1];
+    }
+
+    public String dayOfWeek(int isoDayOfWeek) {
+        return mDaysOfWeek[isoDayOfWeek - 1];
+    }
+
+    public String month(int monthOfYear) {
+        return mMonths[monthOfYear - 1];
+    }
+
+    private static String truncate(String label) {
+        return label.length() >= SHORT_NAME_LENGTH ? label.substring(0, SHORT_NAME_LENGTH) : label;
+    }
+}
@@ -0,0 +1,101 @@
+package com.andressantibanez.ranger.core;
+
+import java.util.Arrays;
+
+/**
+ * Per day values, such as a price or a remaining capacity, and statuses by index from the start
+ * of a range. Held in primitive columns that grow with the highest index written, so thousands of
+ * days cost a few bytes each and no boxing. Not thread safe.
+ */
+public final class DayMetadata {
+
+    /**
+     * Constants
+     */
+    public static final int NO_VALUE = Integer.MIN_VALUE;
+    public static final byte NO_STATUS = 0;
+    private static final int MIN_CAPACITY = 64;
+
+    /**
+     * Variables
+     */
+    private int[] mValues = new int[0];
+    private byte[] mStatuses = new byte[0];
+    //Days up to the highest index written
+    private int mSize;
+
+    /**
+     * Value of the day, {@link #NO_VALUE} if none was written
+     */
+    public int getValue(int index) {
+        return index >= 0 && index < mSize ? mValues[index] : NO_VALUE;
+    }
+
+    /**
+     * Status of the day, {@link #NO_STATUS} if none was written
+     */
+    public byte getStatus(int index) {
+        return index >= 0 && index < mSize ? mStatuses[index] : NO_STATUS;
+    }
+
+    /**
+     * Writes count days from fromIndex. Either column may be null to leave it as it is.
+     * Returns the indexes whose value or status changed, in order.
+     */
+    public int[] update(int fromIndex, int[] values, byte[] statuses, int count) {
+        if (fromIndex < 0 || count < 0 || (values != null && values.length < count) || (statuses != null && statuses.length < count))
+            throw new IllegalArgumentException("Metadata must start at a day of the range and hold count days");
+        if ((long) fromIndex + count > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Metadata can't extend past the last index");
+
+        ensureSize(fromIndex + count);
+
+        int[] changed = new int[count];
+        int changedCount = 0;
+        for (int i = 0; i < count; i++) {
+            int index = fromIndex + i;
+            boolean dayChanged = false;
+            if (values != null && mValues[index] != values[i]) {
+                mValues[index] = values[i];
+                dayChanged = true;
+            }
+            if (statuses != null && mStatuses[index] != statuses[i]) {
+                mStatuses[index] = statuses[i];
+                dayChanged = true;
+            }
+            if (dayChanged) {
+                changed[changedCount++] = index;
+            }
+        }
+        return changedCount == count ? changed : Arrays.copyOf(changed, changedCount);
+    }
+
+    private void ensureSize(int size) {
+        if (size > mValues.length) {
+            //Grow geometrically, new days have no value
+            int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(Math.max(MIN_CAPACITY, size), 2L * mValues.length));
+            int previousCapacity = mValues.length;
+            mValues = Arrays.copyOf(mValues, capacity);
+            mStatuses = Arrays.copyOf(mStatuses, capacity);
+            Arrays.fill(mValues, previousCapacity, capacity, NO_VALUE);
+        }
+        mSize = Math.max(mSize, size);
+    }
+
+    /**
+     * Days up to the highest index written
+     */
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    public void clear() {
+        mValues = new int[0];
+        mStatuses = new byte[0];
+        mSize = 0;
+    }
+}
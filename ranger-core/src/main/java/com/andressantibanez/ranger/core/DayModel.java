@@ -0,0 +1,260 @@
+package com.andressantibanez.ranger.core;
+
+/**
+ * Immutable description of the days in a range: date fields and disabled state packed
+ * in one int per day. It is safe to build on a background thread and to share; binding a
+ * cell only reads from it.
+ * <p>
+ * Only a window of the range is packed. Days outside of it are computed on demand, so
+ * paged ranges keep a constant footprint however long they grow.
+ */
+public final class DayModel {
+
+    /**
+     * Constants
+     */
+    //End day of ranges without an end
+    public static final int OPEN_END = Integer.MAX_VALUE;
+    //Packed day: day of month (5 bits), month (4 bits), ISO day of week (3 bits), flags
+    private static final int DAY_OF_MONTH_MASK = 0x1f;
+    private static final int MONTH_SHIFT = 5;
+    private static final int MONTH_MASK = 0xf;
+    private static final int DAY_OF_WEEK_SHIFT = 9;
+    private static final int DAY_OF_WEEK_MASK = 0x7;
+    private static final int DISABLED_FLAG = 1 << 12;
+    private static final int END_MONTH_FLAG = 1 << 13;
+    //Days built between cancellation checks
+    private static final int CANCELLATION_CHECK_INTERVAL = 4096;
+
+    /**
+     * Variables
+     */
+    private final int mStartEpochDay;
+    private final int mEndEpochDay;
+    private final int mDayCount;
+    private final DisabledDays mDisabledDays;
+    private final DayRules mDisabledRules;
+    private final int mFirstEnabledIndex;
+    //Packed days from mFirstIndex on
+    private final int mFirstIndex;
+    private final int mEndMonth;
+    private final int[] mDays;
+
+    private DayModel(int startEpochDay, int endEpochDay, int dayCount, DisabledDays disabledDays, DayRules disabledRules,
+                     int endMonth, int firstIndex, int[] days, int firstEnabledIndex) {
+        mStartEpochDay = startEpochDay;
+        mEndEpochDay = endEpochDay;
+        mDayCount = dayCount;
+        mDisabledDays = disabledDays;
+        mDisabledRules = disabledRules;
+        mEndMonth = endMonth;
+        mFirstIndex = firstIndex;
+        mDays = days;
+        mFirstEnabledIndex = firstEnabledIndex;
+    }
+
+    /**
+     * Builds the model for dayCount days from startEpochDay. endEpochDay only decides which
+     * month counts as the end month. Returns null if the thread is interrupted meanwhile.
+     */
+    public static DayModel build(int startEpochDay, int endEpochDay, int dayCount, DisabledDays disabledDays) {
+        return build(startEpochDay, endEpochDay, dayCount, disabledDays, 0, dayCount);
+    }
+
+    /**
+     * Same as {@link #build(int, int, int, DisabledDays)} packing only windowCount days from
+     * firstIndex.
+     */
+    public static DayModel build(int startEpochDay, int endEpochDay, int dayCount, DisabledDays disabledDays, int firstIndex, int windowCount) {
+        return build(startEpochDay, endEpochDay, dayCount, disabledDays, DayRules.NONE, firstIndex, windowCount);
+    }
+
+    /**
+     * Same as {@link #build(int, int, int, DisabledDays, int, int)} also disabling the days the
+     * rules disable
+     */
+    public static DayModel build(int startEpochDay, int endEpochDay, int dayCount, DisabledDays disabledDays,
+                                 DayRules disabledRules, int firstIndex, int windowCount) {
+        firstIndex = Math.max(0, Math.min(firstIndex, dayCount));
+        int[] days = new int[Math.max(0, Math.min(windowCount, dayCount - firstIndex))];
+        int endMonth = endEpochDay != OPEN_END ? EpochDays.monthOfYear(endEpochDay) : 0;
+
+        //Step date fields instead of converting every day
+        int firstDay = startEpochDay + firstIndex;
+        int year = EpochDays.year(firstDay);
+        int month = EpochDays.monthOfYear(firstDay);
+        int dayOfMonth = EpochDays.dayOfMonth(firstDay);
+        int dayOfWeek = EpochDays.dayOfWeek(firstDay);
+        int monthLength = EpochDays.lengthOfMonth(year, month);
+
+        for (int index = 0; index < days.length; index++) {
+            if (index % CANCELLATION_CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+
+            int day = dayOfMonth | month << MONTH_SHIFT | dayOfWeek << DAY_OF_WEEK_SHIFT;
+            if (month == endMonth)
+                day |= END_MONTH_FLAG;
+            if (disabledDays.contains(firstDay + index) || disabledRules.isDisabled(firstDay + index))
+                day |= DISABLED_FLAG;
+            days[index] = day;
+
+            //Next day
+            dayOfWeek = dayOfWeek == 7 ? 1 : dayOfWeek + 1;
+            if (++dayOfMonth > monthLength) {
+                dayOfMonth = 1;
+                if (++month > 12) {
+                    month = 1;
+                    year++;
+                }
+                monthLength = EpochDays.lengthOfMonth(year, month);
+            }
+        }
+
+        return new DayModel(startEpochDay, endEpochDay, dayCount, disabledDays, disabledRules, endMonth, firstIndex, days,
+                firstEnabledIndex(startEpochDay, dayCount, disabledDays, disabledRules));
+    }
+
+    private static int firstEnabledIndex(int startEpochDay, int dayCount, DisabledDays disabledDays, DayRules disabledRules) {
+        //Runs of disabled days are short next to the range
+        int lastDay = startEpochDay + dayCount - 1;
+        int firstEnabledDay = disabledDays.nextEnabledDay(startEpochDay, lastDay);
+        while (firstEnabledDay != DisabledDays.NO_DAY && disabledRules.isDisabled(firstEnabledDay)) {
+            firstEnabledDay = firstEnabledDay < lastDay ? disabledDays.nextEnabledDay(firstEnabledDay + 1, lastDay) : DisabledDays.NO_DAY;
+        }
+        return firstEnabledDay != DisabledDays.NO_DAY ? firstEnabledDay - startEpochDay : -1;
+    }
+
+    /**
+     * Same days and window with other disabled days. Only the packed days disabled in exactly one
+     * of both sets are flipped, on a copy of the packed days when there are any, so the cost
+     * follows the number of changed days instead of the length of the range.
+     */
+    public DayModel withDisabledDays(DisabledDays disabledDays) {
+        if (disabledDays == mDisabledDays) {
+            return this;
+        }
+
+        int[] days = mDays;
+        int firstPackedDay = mStartEpochDay + mFirstIndex;
+        int[] changedDays = days.length > 0
+                ? mDisabledDays.changedDays(disabledDays, firstPackedDay, firstPackedDay + days.length - 1)
+                : new int[0];
+        if (changedDays.length > 0) {
+            days = days.clone();
+            for (int day : changedDays) {
+                if (disabledDays.contains(day) || mDisabledRules.isDisabled(day)) {
+                    days[day - firstPackedDay] |= DISABLED_FLAG;
+                } else {
+                    days[day - firstPackedDay] &= ~DISABLED_FLAG;
+                }
+            }
+        }
+
+        return new DayModel(mStartEpochDay, mEndEpochDay, mDayCount, disabledDays, mDisabledRules, mEndMonth, mFirstIndex, days,
+                firstEnabledIndex(mStartEpochDay, mDayCount, disabledDays, mDisabledRules));
+    }
+
+    /**
+     * Whether the model packs the same days as {@link #build(int, int, int, DisabledDays, DayRules, int, int)}
+     * would with these arguments, so it can be derived with {@link #withDisabledDays(DisabledDays)}
+     */
+    public boolean packsSameDays(int startEpochDay, int endEpochDay, int dayCount, DayRules disabledRules, int firstIndex, int windowCount) {
+        firstIndex = Math.max(0, Math.min(firstIndex, dayCount));
+        return mStartEpochDay == startEpochDay && mEndEpochDay == endEpochDay && mDayCount == dayCount
+                && mDisabledRules == disabledRules && mFirstIndex == firstIndex
+                && mDays.length == Math.max(0, Math.min(windowCount, dayCount - firstIndex));
+    }
+
+    /**
+     * Whether both models show the same days, regardless of how far they extend and of the packed window
+     */
+    public boolean hasSameDays(DayModel other) {
+        return other != null && mStartEpochDay == other.mStartEpochDay && mEndEpochDay == other.mEndEpochDay;
+    }
+
+    public int getStartEpochDay() {
+        return mStartEpochDay;
+    }
+
+    public int getEndEpochDay() {
+        return mEndEpochDay;
+    }
+
+    public int getDayCount() {
+        return mDayCount;
+    }
+
+    public DisabledDays getDisabledDays() {
+        return mDisabledDays;
+    }
+
+    public DayRules getDisabledRules() {
+        return mDisabledRules;
+    }
+
+    /**
+     * Index of the first day that is not disabled, -1 if none
+     */
+    public int getFirstEnabledIndex() {
+        return mFirstEnabledIndex;
+    }
+
+    /**
+     * Index of the first packed day
+     */
+    public int getFirstIndex() {
+        return mFirstIndex;
+    }
+
+    /**
+     * Number of packed days
+     */
+    public int getWindowCount() {
+        return mDays.length;
+    }
+
+    /**
+     * Same days with none packed, every field is then computed on demand. Answers the same
+     * queries in a few bytes, for example while the days are not shown.
+     */
+    public DayModel unpacked() {
+        if (mDays.length == 0) {
+            return this;
+        }
+        return new DayModel(mStartEpochDay, mEndEpochDay, mDayCount, mDisabledDays, mDisabledRules, mEndMonth, mFirstIndex, new int[0], mFirstEnabledIndex);
+    }
+
+    private boolean isPacked(int index) {
+        return index >= mFirstIndex && index - mFirstIndex < mDays.length;
+    }
+
+    public int dayOfMonth(int index) {
+        return isPacked(index) ? mDays[index - mFirstIndex] & DAY_OF_MONTH_MASK : EpochDays.dayOfMonth(mStartEpochDay + index);
+    }
+
+    public int monthOfYear(int index) {
+        return isPacked(index) ? mDays[index - mFirstIndex] >> MONTH_SHIFT & MONTH_MASK : EpochDays.monthOfYear(mStartEpochDay + index);
+    }
+
+    public int dayOfWeek(int index) {
+        return isPacked(index) ? mDays[index - mFirstIndex] >> DAY_OF_WEEK_SHIFT & DAY_OF_WEEK_MASK : EpochDays.dayOfWeek(mStartEpochDay + index);
+    }
+
+    public boolean isDisabled(int index) {
+        if (index < 0 || index >= mDayCount) {
+            return false;
+        }
+        if (isPacked(index)) {
+            return (mDays[index - mFirstIndex] & DISABLED_FLAG) != 0;
+        }
+        return mDisabledDays.contains(mStartEpochDay + index) || mDisabledRules.isDisabled(mStartEpochDay + index);
+    }
+
+    /**
+     * Whether the day falls in the same month of year as the end date. Never for open ended ranges.
+     */
+    public boolean isInEndMonth(int index) {
+        return isPacked(index) ? (mDays[index - mFirstIndex] & END_MONTH_FLAG) != 0 : monthOfYear(index) == mEndMonth;
+    }
+}
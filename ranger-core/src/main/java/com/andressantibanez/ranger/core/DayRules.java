@@ -0,0 +1,324 @@
+package com.andressantibanez.ranger.core;
+
+import java.util.Arrays;
+
+/**
+ * Immutable rules disabling days by epoch day: days of week, closed intervals and every Nth day
+ * from a start day, with explicit exceptions that stay enabled. Each rule answers in constant
+ * time, intervals and exceptions with a binary search, and the whole set encodes to a few ints.
+ * Spans are searched rule by rule without walking their days.
+ */
+public final class DayRules {
+
+    /**
+     * Constants
+     */
+    public static final DayRules NONE = new DayRules(0, new int[0], new int[0], new int[0]);
+
+    /**
+     * Variables
+     */
+    //Bit d is set when ISO day of week d is disabled
+    private final int mWeekdayMask;
+    //Sorted, disjoint closed intervals as first and last day pairs
+    private final int[] mIntervals;
+    //Start day and period pairs
+    private final int[] mRecurrences;
+    //Sorted, unique days enabled regardless of the rules
+    private final int[] mExceptions;
+
+    private DayRules(int weekdayMask, int[] intervals, int[] recurrences, int[] exceptions) {
+        mWeekdayMask = weekdayMask;
+        mIntervals = intervals;
+        mRecurrences = recurrences;
+        mExceptions = exceptions;
+    }
+
+    public boolean isDisabled(int epochDay) {
+        if (isEmpty() || Arrays.binarySearch(mExceptions, epochDay) >= 0) {
+            return false;
+        }
+
+        if ((mWeekdayMask & 1 << EpochDays.dayOfWeek(epochDay)) != 0) {
+            return true;
+        }
+        for (int i = 0; i < mRecurrences.length; i += 2) {
+            int start = mRecurrences[i];
+            if (epochDay >= start && (epochDay - start) % mRecurrences[i + 1] == 0) {
+                return true;
+            }
+        }
+        return isInInterval(epochDay);
+    }
+
+    private boolean isInInterval(int epochDay) {
+        int interval = lastIntervalStartingBy(epochDay);
+        return interval >= 0 && epochDay <= mIntervals[interval * 2 + 1];
+    }
+
+    /**
+     * Index of the last interval starting on or before the day, -1 if none
+     */
+    private int lastIntervalStartingBy(int epochDay) {
+        int low = 0;
+        int high = mIntervals.length / 2;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mIntervals[mid * 2] <= epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * Whether any day in [fromDay, toDay] is disabled
+     */
+    public boolean containsAny(int fromDay, int toDay) {
+        if (isEmpty() || toDay < fromDay) {
+            return false;
+        }
+
+        //Every masked weekday falls in a long enough span, more often than exceptions can cover
+        long length = (long) toDay - fromDay + 1;
+        if (mWeekdayMask != 0 && length >= 7) {
+            long maskedDays = Integer.bitCount(mWeekdayMask) * (length / 7);
+            if (maskedDays > countExceptions(fromDay, toDay)) {
+                return true;
+            }
+        }
+        return nextDisabledDay(fromDay, toDay) != DisabledDays.NO_DAY;
+    }
+
+    /**
+     * First disabled day in [fromDay, toDay], or {@link DisabledDays#NO_DAY}. Each rule computes
+     * its next day directly: the weekday mask within a week, intervals with a binary search and
+     * recurrences with arithmetic. Only exceptions hit on the way are stepped over.
+     */
+    public int nextDisabledDay(int fromDay, int toDay) {
+        if (isEmpty()) {
+            return DisabledDays.NO_DAY;
+        }
+
+        long day = fromDay;
+        while (day <= toDay) {
+            long candidate = nextRuleDay((int) day);
+            if (candidate > toDay) {
+                return DisabledDays.NO_DAY;
+            }
+            if (Arrays.binarySearch(mExceptions, (int) candidate) < 0) {
+                return (int) candidate;
+            }
+            day = candidate + 1;
+        }
+        return DisabledDays.NO_DAY;
+    }
+
+    /**
+     * First day from epochDay on that a rule disables, exceptions aside. Past Integer.MAX_VALUE if none.
+     */
+    private long nextRuleDay(int epochDay) {
+        long next = Long.MAX_VALUE;
+
+        if (mWeekdayMask != 0) {
+            int dayOfWeek = EpochDays.dayOfWeek(epochDay);
+            for (int offset = 0; offset < 7; offset++) {
+                if ((mWeekdayMask & 1 << ((dayOfWeek - 1 + offset) % 7 + 1)) != 0) {
+                    next = (long) epochDay + offset;
+                    break;
+                }
+            }
+        }
+
+        int interval = lastIntervalStartingBy(epochDay);
+        if (interval >= 0 && epochDay <= mIntervals[interval * 2 + 1]) {
+            return epochDay;
+        }
+        if ((interval + 1) * 2 < mIntervals.length)
+            next = Math.min(next, mIntervals[(interval + 1) * 2]);
+
+        for (int i = 0; i < mRecurrences.length; i += 2) {
+            long start = mRecurrences[i];
+            long period = mRecurrences[i + 1];
+            long hit = epochDay <= start ? start : start + ((epochDay - start + period - 1) / period) * period;
+            next = Math.min(next, hit);
+        }
+        return next;
+    }
+
+    /**
+     * Exceptions within [fromDay, toDay]
+     */
+    private int countExceptions(int fromDay, int toDay) {
+        return insertionPoint(mExceptions, toDay + 1L) - insertionPoint(mExceptions, fromDay);
+    }
+
+    //Index of the first value not below day
+    private static int insertionPoint(int[] values, long day) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public boolean isEmpty() {
+        return mWeekdayMask == 0 && mIntervals.length == 0 && mRecurrences.length == 0;
+    }
+
+    /**
+     * Rules as ints: weekday mask, then the intervals, recurrences and exceptions each preceded
+     * by their length
+     */
+    public int[] encode() {
+        int[] values = new int[4 + mIntervals.length + mRecurrences.length + mExceptions.length];
+        int i = 0;
+        values[i++] = mWeekdayMask;
+        i = put(values, i, mIntervals);
+        i = put(values, i, mRecurrences);
+        put(values, i, mExceptions);
+        return values;
+    }
+
+    private static int put(int[] values, int i, int[] array) {
+        values[i++] = array.length;
+        System.arraycopy(array, 0, values, i, array.length);
+        return i + array.length;
+    }
+
+    /**
+     * @throws IllegalArgumentException when values were not produced by {@link #encode()}
+     */
+    public static DayRules decode(int[] values) {
+        try {
+            int i = 1;
+            int[] intervals = Arrays.copyOfRange(values, i + 1, i + 1 + values[i]);
+            i += 1 + intervals.length;
+            int[] recurrences = Arrays.copyOfRange(values, i + 1, i + 1 + values[i]);
+            i += 1 + recurrences.length;
+            int[] exceptions = Arrays.copyOfRange(values, i + 1, i + 1 + values[i]);
+            if (values[0] == 0 && intervals.length == 0 && recurrences.length == 0 && exceptions.length == 0) {
+                return NONE;
+            }
+            return new DayRules(values[0], intervals, recurrences, exceptions);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid encoded day rules", e);
+        }
+    }
+
+    /**
+     * Builder
+     */
+    public static final class Builder {
+
+        private int mWeekdayMask;
+        private int[] mIntervals = new int[0];
+        private int[] mRecurrences = new int[0];
+        private int[] mExceptions = new int[0];
+
+        /**
+         * Disables every day with the ISO day of week, 1 being Monday
+         */
+        public Builder weekday(int dayOfWeek) {
+            if (dayOfWeek < 1 || dayOfWeek > 7)
+                throw new IllegalArgumentException("Day of week must be from 1 to 7");
+            mWeekdayMask |= 1 << dayOfWeek;
+            return this;
+        }
+
+        /**
+         * Disables every day from fromDay to toDay, both included
+         */
+        public Builder interval(int fromDay, int toDay) {
+            if (toDay < fromDay)
+                throw new IllegalArgumentException("Interval can't end before it starts");
+            mIntervals = append(mIntervals, fromDay, toDay);
+            return this;
+        }
+
+        /**
+         * Disables startDay and every periodDays-th day after it
+         */
+        public Builder every(int periodDays, int startDay) {
+            if (periodDays < 1)
+                throw new IllegalArgumentException("Period must be at least one day");
+            mRecurrences = append(mRecurrences, startDay, periodDays);
+            return this;
+        }
+
+        /**
+         * Keeps the day enabled whatever the other rules say
+         */
+        public Builder except(int day) {
+            mExceptions = Arrays.copyOf(mExceptions, mExceptions.length + 1);
+            mExceptions[mExceptions.length - 1] = day;
+            return this;
+        }
+
+        public DayRules build() {
+            if (mWeekdayMask == 0 && mIntervals.length == 0 && mRecurrences.length == 0)
+                return NONE;
+            return new DayRules(mWeekdayMask, mergeIntervals(mIntervals), mRecurrences.clone(), sortUnique(mExceptions));
+        }
+
+        private static int[] append(int[] values, int first, int second) {
+            values = Arrays.copyOf(values, values.length + 2);
+            values[values.length - 2] = first;
+            values[values.length - 1] = second;
+            return values;
+        }
+
+        private static int[] mergeIntervals(int[] intervals) {
+            int count = intervals.length / 2;
+            if (count == 0) {
+                return intervals;
+            }
+
+            //Sort by first day, packing both days in a long keeps the pairs together
+            long[] packed = new long[count];
+            for (int i = 0; i < count; i++) {
+                packed[i] = (long) intervals[i * 2] << 32 | (intervals[i * 2 + 1] & 0xffffffffL);
+            }
+            Arrays.sort(packed);
+
+            //Merge overlapping and adjacent intervals
+            int[] merged = new int[count * 2];
+            int size = 0;
+            for (long interval : packed) {
+                int from = (int) (interval >> 32);
+                int to = (int) interval;
+                if (size > 0 && (long) from <= (long) merged[size - 1] + 1) {
+                    merged[size - 1] = Math.max(merged[size - 1], to);
+                } else {
+                    merged[size++] = from;
+                    merged[size++] = to;
+                }
+            }
+            return size == merged.length ? merged : Arrays.copyOf(merged, size);
+        }
+
+        private static int[] sortUnique(int[] days) {
+            if (days.length == 0) {
+                return days;
+            }
+
+            days = days.clone();
+            Arrays.sort(days);
+            int size = 1;
+            for (int i = 1; i < days.length; i++) {
+                if (days[i] != days[size - 1]) {
+                    days[size++] = days[i];
+                }
+            }
+            return size == days.length ? days : Arrays.copyOf(days, size);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.andressantibanez.ranger.core;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of disabled days keyed by epoch day (days since 1970-01-01).
+ * Membership is answered from a bitset that spans the first to the last disabled day.
+ */
+public final class DisabledDays {
+
+    /**
+     * Constants
+     */
+    public static final DisabledDays EMPTY = new DisabledDays(new int[0]);
+    public static final int NO_DAY = Integer.MIN_VALUE;
+    //Sets spread wider than this fall back to binary search (~11k years, 512KB of bits)
+    private static final int MAX_BITSET_SPAN = 1 << 22;
+
+    /**
+     * Variables
+     */
+    //Sorted, unique epoch days
+    private final int[] mDays;
+    //Bit i is set when mFirstDay + i is disabled
+    private final long[] mBits;
+    private final int mFirstDay;
+
+    private DisabledDays(int[] sortedUniqueDays) {
+        mDays = sortedUniqueDays;
+        if (mDays.length == 0) {
+            mFirstDay = 0;
+            mBits = new long[0];
+            return;
+        }
+
+        mFirstDay = mDays[0];
+        long span = (long) mDays[mDays.length - 1] - mFirstDay + 1;
+        if (span > MAX_BITSET_SPAN) {
+            mBits = null;
+            return;
+        }
+
+        mBits = new long[(int) ((span + 63) >>> 6)];
+        for (int day : mDays) {
+            int offset = day - mFirstDay;
+            mBits[offset >>> 6] |= 1L << offset;
+        }
+    }
+
+    /**
+     * Builds a set from unsorted epoch days. Duplicates are dropped.
+     */
+    public static DisabledDays of(int[] epochDays, int count) {
+        if (count == 0) {
+            return EMPTY;
+        }
+
+        int[] days = Arrays.copyOf(epochDays, count);
+        //Lists pushed again after a small change are mostly in order already
+        if (!isSorted(days)) {
+            Arrays.sort(days);
+        }
+
+        //Drop duplicates in place
+        int size = 1;
+        for (int i = 1; i < days.length; i++) {
+            if (days[i] != days[size - 1]) {
+                days[size++] = days[i];
+            }
+        }
+
+        return new DisabledDays(size == days.length ? days : Arrays.copyOf(days, size));
+    }
+
+    private static boolean isSorted(int[] days) {
+        for (int i = 1; i < days.length; i++) {
+            if (days[i] < days[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(int epochDay) {
+        if (mBits == null) {
+            return Arrays.binarySearch(mDays, epochDay) >= 0;
+        }
+
+        int offset = epochDay - mFirstDay;
+        if (offset < 0 || offset >= mBits.length << 6) {
+            return false;
+        }
+        return (mBits[offset >>> 6] & (1L << offset)) != 0;
+    }
+
+    /**
+     * Whether any day in [fromDay, toDay] is disabled, a binary search over the sorted days
+     */
+    public boolean containsAny(int fromDay, int toDay) {
+        int i = lowerBound(mDays, fromDay);
+        return i < mDays.length && mDays[i] <= toDay;
+    }
+
+    /**
+     * First day in [fromDay, toDay] that is not disabled, or {@link #NO_DAY}.
+     */
+    public int nextEnabledDay(int fromDay, int toDay) {
+        for (int day = fromDay; day <= toDay; day++) {
+            if (!contains(day)) {
+                return day;
+            }
+        }
+        return NO_DAY;
+    }
+
+    /**
+     * Days in [fromDay, toDay] that are disabled in exactly one of both sets, in order.
+     * Cost depends on how many disabled days fall in the interval, not on its length.
+     */
+    public int[] changedDays(DisabledDays other, int fromDay, int toDay) {
+        int i = lowerBound(mDays, fromDay);
+        int j = lowerBound(other.mDays, fromDay);
+        int iEnd = lowerBound(mDays, toDay + 1);
+        int jEnd = lowerBound(other.mDays, toDay + 1);
+
+        int[] changed = new int[(iEnd - i) + (jEnd - j)];
+        int count = 0;
+        while (i < iEnd || j < jEnd) {
+            if (j == jEnd || (i < iEnd && mDays[i] < other.mDays[j])) {
+                changed[count++] = mDays[i++];
+            } else if (i == iEnd || other.mDays[j] < mDays[i]) {
+                changed[count++] = other.mDays[j++];
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return count == changed.length ? changed : Arrays.copyOf(changed, count);
+    }
+
+    //Index of the first element not lower than key
+    private static int lowerBound(int[] values, int key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Number of runs of consecutive disabled days
+     */
+    public int runCount() {
+        int count = 0;
+        for (int i = 0; i < mDays.length; i++) {
+            if (i == 0 || mDays[i] != mDays[i - 1] + 1) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Runs of consecutive disabled days as start day and length pairs
+     */
+    public int[] toRuns() {
+        int[] runs = new int[runCount() * 2];
+        int run = -2;
+        for (int i = 0; i < mDays.length; i++) {
+            if (i == 0 || mDays[i] != mDays[i - 1] + 1) {
+                run += 2;
+                runs[run] = mDays[i];
+            }
+            runs[run + 1]++;
+        }
+        return runs;
+    }
+
+    public static DisabledDays fromRuns(int[] runs) {
+        int count = 0;
+        for (int run = 1; run < runs.length; run += 2) {
+            count += runs[run];
+        }
+        if (count == 0) {
+            return EMPTY;
+        }
+
+        int[] days = new int[count];
+        int i = 0;
+        for (int run = 0; run < runs.length; run += 2) {
+            for (int day = 0; day < runs[run + 1]; day++) {
+                days[i++] = runs[run] + day;
+            }
+        }
+        return new DisabledDays(days);
+    }
+
+    /**
+     * First disabled day, where the bitset starts
+     */
+    public int getFirstDay() {
+        return mFirstDay;
+    }
+
+    /**
+     * Bitset from {@link #getFirstDay()}, null when the set is too spread to hold one
+     */
+    public long[] toBits() {
+        return mBits;
+    }
+
+    public static DisabledDays fromBits(int firstDay, long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        if (count == 0) {
+            return EMPTY;
+        }
+
+        int[] days = new int[count];
+        int i = 0;
+        for (int word = 0; word < bits.length; word++) {
+            for (long bit = bits[word]; bit != 0; bit &= bit - 1) {
+                days[i++] = firstDay + (word << 6) + Long.numberOfTrailingZeros(bit);
+            }
+        }
+        return new DisabledDays(days);
+    }
+
+    public int size() {
+        return mDays.length;
+    }
+
+    public boolean isEmpty() {
+        return mDays.length == 0;
+    }
+
+    public int[] toArray() {
+        return mDays.clone();
+    }
+}
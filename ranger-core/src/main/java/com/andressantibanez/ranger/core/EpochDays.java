@@ -0,0 +1,93 @@
+package com.andressantibanez.ranger.core;
+
+/**
+ * Proleptic ISO calendar arithmetic on epoch days (days since 1970-01-01).
+ * Plain integer math, no time zone data and no allocation.
+ */
+public final class EpochDays {
+
+    //Days from 0000-03-01 to 1970-01-01
+    private static final int DAYS_0000_TO_1970 = 719468;
+    private static final int DAYS_PER_ERA = 146097;
+
+    private EpochDays() {
+    }
+
+    public static int of(int year, int monthOfYear, int dayOfMonth) {
+        //Years start in March so the leap day is the last day of the year
+        int y = monthOfYear <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (monthOfYear > 2 ? monthOfYear - 3 : monthOfYear + 9) + 2) / 5 + dayOfMonth - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_ERA + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * ISO day of week, Monday = 1 to Sunday = 7
+     */
+    public static int dayOfWeek(int epochDay) {
+        //1970-01-01 was a Thursday
+        int dayOfWeek = (epochDay + 3) % 7;
+        return (dayOfWeek < 0 ? dayOfWeek + 7 : dayOfWeek) + 1;
+    }
+
+    public static int year(int epochDay) {
+        int dayOfEra = dayOfEra(epochDay);
+        int yearOfEra = yearOfEra(dayOfEra);
+        int monthIndex = monthIndex(dayOfYear(dayOfEra, yearOfEra));
+        return yearOfEra + era(epochDay) * 400 + (monthIndex >= 10 ? 1 : 0);
+    }
+
+    public static int monthOfYear(int epochDay) {
+        int dayOfEra = dayOfEra(epochDay);
+        int monthIndex = monthIndex(dayOfYear(dayOfEra, yearOfEra(dayOfEra)));
+        return monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+    }
+
+    public static int dayOfMonth(int epochDay) {
+        int dayOfEra = dayOfEra(epochDay);
+        int dayOfYear = dayOfYear(dayOfEra, yearOfEra(dayOfEra));
+        return dayOfYear - (153 * monthIndex(dayOfYear) + 2) / 5 + 1;
+    }
+
+    public static int lengthOfMonth(int year, int monthOfYear) {
+        switch (monthOfYear) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Civil date helpers, eras of 400 years starting on March 1st
+     */
+    private static int era(int epochDay) {
+        int shifted = epochDay + DAYS_0000_TO_1970;
+        return (shifted >= 0 ? shifted : shifted - DAYS_PER_ERA + 1) / DAYS_PER_ERA;
+    }
+
+    private static int dayOfEra(int epochDay) {
+        return epochDay + DAYS_0000_TO_1970 - era(epochDay) * DAYS_PER_ERA;
+    }
+
+    private static int yearOfEra(int dayOfEra) {
+        return (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    }
+
+    private static int dayOfYear(int dayOfEra, int yearOfEra) {
+        return dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    }
+
+    //0 = March ... 11 = February
+    private static int monthIndex(int dayOfYear) {
+        return (5 * dayOfYear + 2) / 153;
+    }
+}
@@ -0,0 +1,44 @@
+package com.andressantibanez.ranger.core;
+
+/**
+ * Day intervals whose selection style changes when a selection moves from one span of days
+ * to another. A single day selection is a span of one day, -1 stands for no selection.
+ */
+public final class SelectionDiff {
+
+    /**
+     * Constants
+     */
+    //Two intervals, from and to index each
+    public static final int MAX_INTERVAL_VALUES = 4;
+
+    private SelectionDiff() {
+    }
+
+    /**
+     * Writes the [from, to] intervals to restyle in intervals and returns how many values
+     * were written. Days entering or leaving the span are included, as are both old and new
+     * ends, the days in between keep their style.
+     */
+    public static int changedIntervals(int previousStart, int previousEnd, int start, int end, int[] intervals) {
+        int count = 0;
+        if (previousStart < 0 || start < 0 || previousEnd < start || end < previousStart) {
+            //No overlap, each span as a whole
+            if (previousStart >= 0) {
+                intervals[count++] = previousStart;
+                intervals[count++] = previousEnd;
+            }
+            if (start >= 0) {
+                intervals[count++] = start;
+                intervals[count++] = end;
+            }
+            return count;
+        }
+
+        intervals[count++] = Math.min(previousStart, start);
+        intervals[count++] = Math.max(previousStart, start);
+        intervals[count++] = Math.min(previousEnd, end);
+        intervals[count++] = Math.max(previousEnd, end);
+        return count;
+    }
+}
@@ -0,0 +1,69 @@
+package com.andressantibanez.ranger.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DayModelTest {
+
+    private static final int START_DAY = EpochDays.of(2018, 1, 1);
+    private static final int DAY_COUNT = 400;
+
+    @Test
+    public void withDisabledDaysMatchesFullBuild() {
+        Random random = new Random(42);
+        DayRules rules = new DayRules.Builder().weekday(7).except(START_DAY + 6).build();
+        DayModel model = DayModel.build(START_DAY, START_DAY + DAY_COUNT - 1, DAY_COUNT, randomDays(random), rules, 20, 300);
+        for (int round = 0; round < 50; round++) {
+            DisabledDays disabledDays = randomDays(random);
+            DayModel derived = model.withDisabledDays(disabledDays);
+            DayModel built = DayModel.build(START_DAY, START_DAY + DAY_COUNT - 1, DAY_COUNT, disabledDays, rules, 20, 300);
+
+            assertSame(disabledDays, derived.getDisabledDays());
+            assertEquals(built.getFirstEnabledIndex(), derived.getFirstEnabledIndex());
+            assertEquals(built.getWindowCount(), derived.getWindowCount());
+            for (int index = 0; index < DAY_COUNT; index++) {
+                assertEquals("Day " + index, built.isDisabled(index), derived.isDisabled(index));
+                assertEquals(built.dayOfMonth(index), derived.dayOfMonth(index));
+                assertEquals(built.isInEndMonth(index), derived.isInEndMonth(index));
+            }
+            model = derived;
+        }
+    }
+
+    @Test
+    public void withDisabledDaysLeavesThePreviousModelAsItWas() {
+        DayModel model = DayModel.build(START_DAY, START_DAY + DAY_COUNT - 1, DAY_COUNT, DisabledDays.EMPTY);
+        DayModel derived = model.withDisabledDays(DisabledDays.of(new int[]{START_DAY, START_DAY + 3}, 2));
+
+        assertTrue(derived.isDisabled(0));
+        assertTrue(derived.isDisabled(3));
+        assertEquals(1, derived.getFirstEnabledIndex());
+        assertFalse(model.isDisabled(0));
+        assertEquals(0, model.getFirstEnabledIndex());
+        assertSame(model, model.withDisabledDays(DisabledDays.EMPTY));
+    }
+
+    @Test
+    public void packsSameDays() {
+        DayModel model = DayModel.build(START_DAY, START_DAY + DAY_COUNT - 1, DAY_COUNT, DisabledDays.EMPTY, DayRules.NONE, 20, 300);
+
+        assertTrue(model.packsSameDays(START_DAY, START_DAY + DAY_COUNT - 1, DAY_COUNT, DayRules.NONE, 20, 300));
+        assertFalse(model.packsSameDays(START_DAY, START_DAY + DAY_COUNT - 1, DAY_COUNT, DayRules.NONE, 0, 300));
+        assertFalse(model.packsSameDays(START_DAY + 1, START_DAY + DAY_COUNT - 1, DAY_COUNT, DayRules.NONE, 20, 300));
+        assertFalse(model.unpacked().packsSameDays(START_DAY, START_DAY + DAY_COUNT - 1, DAY_COUNT, DayRules.NONE, 20, 300));
+    }
+
+    private static DisabledDays randomDays(Random random) {
+        int[] days = new int[random.nextInt(100)];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = START_DAY + random.nextInt(DAY_COUNT + 20) - 10;
+        }
+        return DisabledDays.of(days, days.length);
+    }
+}
@@ -0,0 +1,102 @@
+package com.andressantibanez.ranger.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DayRulesTest {
+
+    private static final int MONDAY = EpochDays.of(2018, 1, 1);
+
+    @Test
+    public void noRules() {
+        assertSame(DayRules.NONE, new DayRules.Builder().except(3).build());
+        assertFalse(DayRules.NONE.isDisabled(MONDAY));
+        assertFalse(DayRules.NONE.containsAny(MONDAY, MONDAY + 1000));
+        assertEquals(DisabledDays.NO_DAY, DayRules.NONE.nextDisabledDay(MONDAY, MONDAY + 1000));
+    }
+
+    @Test
+    public void eachRuleDisablesItsDays() {
+        DayRules rules = new DayRules.Builder()
+                .weekday(7)
+                .interval(MONDAY + 10, MONDAY + 12)
+                .every(30, MONDAY + 1)
+                .except(MONDAY + 11)
+                .build();
+
+        assertTrue(rules.isDisabled(MONDAY + 6));
+        assertTrue(rules.isDisabled(MONDAY + 10));
+        assertFalse(rules.isDisabled(MONDAY + 11));
+        assertTrue(rules.isDisabled(MONDAY + 31));
+        //Recurrences only run forward from their start
+        assertFalse(rules.isDisabled(MONDAY - 59));
+        assertFalse(rules.isDisabled(MONDAY));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidWeekday() {
+        new DayRules.Builder().weekday(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsBackwardsInterval() {
+        new DayRules.Builder().interval(2, 1);
+    }
+
+    @Test
+    public void encodeRoundTrips() {
+        DayRules rules = new DayRules.Builder()
+                .weekday(6)
+                .interval(MONDAY + 3, MONDAY + 4)
+                .interval(MONDAY + 5, MONDAY + 9)
+                .every(14, MONDAY)
+                .except(MONDAY + 14)
+                .build();
+
+        DayRules decoded = DayRules.decode(rules.encode());
+        assertArrayEquals(rules.encode(), decoded.encode());
+        for (int day = MONDAY - 30; day < MONDAY + 100; day++) {
+            assertEquals(rules.isDisabled(day), decoded.isDisabled(day));
+        }
+    }
+
+    @Test
+    public void spanSearchesMatchBruteForce() {
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            DayRules.Builder builder = new DayRules.Builder();
+            if (random.nextInt(3) == 0) {
+                builder.weekday(1 + random.nextInt(7));
+            }
+            for (int i = random.nextInt(4); i > 0; i--) {
+                int fromDay = MONDAY + random.nextInt(200);
+                builder.interval(fromDay, fromDay + random.nextInt(20));
+            }
+            for (int i = random.nextInt(3); i > 0; i--) {
+                builder.every(1 + random.nextInt(40), MONDAY + random.nextInt(200) - 100);
+            }
+            for (int i = random.nextInt(40); i > 0; i--) {
+                builder.except(MONDAY + random.nextInt(200));
+            }
+            DayRules rules = builder.build();
+
+            int fromDay = MONDAY + random.nextInt(200) - 20;
+            int toDay = fromDay + random.nextInt(60);
+            int next = DisabledDays.NO_DAY;
+            for (int day = toDay; day >= fromDay; day--) {
+                if (rules.isDisabled(day)) {
+                    next = day;
+                }
+            }
+            assertEquals(next != DisabledDays.NO_DAY, rules.containsAny(fromDay, toDay));
+            assertEquals(next, rules.nextDisabledDay(fromDay, toDay));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.andressantibanez.ranger.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DisabledDaysTest {
+
+    @Test
+    public void ofSortsAndDropsDuplicates() {
+        DisabledDays days = DisabledDays.of(new int[]{5, -3, 5, 9, -3, 0, 42}, 6);
+
+        assertArrayEquals(new int[]{-3, 0, 5, 9}, days.toArray());
+        assertTrue(days.contains(-3));
+        assertFalse(days.contains(-2));
+        assertFalse(days.contains(42));
+    }
+
+    @Test
+    public void emptySet() {
+        assertSame(DisabledDays.EMPTY, DisabledDays.of(new int[]{1, 2}, 0));
+        assertSame(DisabledDays.EMPTY, DisabledDays.fromRuns(new int[0]));
+        assertSame(DisabledDays.EMPTY, DisabledDays.fromBits(10, new long[2]));
+        assertFalse(DisabledDays.EMPTY.containsAny(Integer.MIN_VALUE + 1, Integer.MAX_VALUE - 1));
+        assertEquals(0, DisabledDays.EMPTY.runCount());
+    }
+
+    @Test
+    public void runsRoundTrip() {
+        DisabledDays days = DisabledDays.of(new int[]{1, 2, 3, 7, 10, 11}, 6);
+
+        assertEquals(3, days.runCount());
+        assertArrayEquals(new int[]{1, 3, 7, 1, 10, 2}, days.toRuns());
+        assertArrayEquals(days.toArray(), DisabledDays.fromRuns(days.toRuns()).toArray());
+    }
+
+    @Test
+    public void bitsRoundTrip() {
+        DisabledDays days = DisabledDays.of(new int[]{-70, -64, -1, 0, 63, 64, 200}, 7);
+
+        assertEquals(-70, days.getFirstDay());
+        DisabledDays decoded = DisabledDays.fromBits(days.getFirstDay(), days.toBits());
+        assertArrayEquals(days.toArray(), decoded.toArray());
+    }
+
+    @Test
+    public void spreadSetHasNoBitsButAnswersMembership() {
+        DisabledDays days = DisabledDays.of(new int[]{0, 1 << 23, -(1 << 23)}, 3);
+
+        assertNull(days.toBits());
+        assertTrue(days.contains(1 << 23));
+        assertFalse(days.contains(1));
+        assertArrayEquals(days.toArray(), DisabledDays.fromRuns(days.toRuns()).toArray());
+    }
+
+    @Test
+    public void randomSetsMatchBruteForce() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            boolean[] disabled = new boolean[300];
+            int[] epochDays = new int[random.nextInt(120)];
+            for (int i = 0; i < epochDays.length; i++) {
+                epochDays[i] = random.nextInt(disabled.length);
+                disabled[epochDays[i]] = true;
+            }
+            DisabledDays days = DisabledDays.of(epochDays, epochDays.length);
+
+            assertArrayEquals(days.toArray(), DisabledDays.fromRuns(days.toRuns()).toArray());
+            assertArrayEquals(days.toArray(), DisabledDays.fromBits(days.getFirstDay(), days.toBits()).toArray());
+
+            int fromDay = random.nextInt(disabled.length);
+            int toDay = fromDay + random.nextInt(disabled.length - fromDay);
+            boolean any = false;
+            int nextEnabled = DisabledDays.NO_DAY;
+            for (int day = toDay; day >= fromDay; day--) {
+                assertEquals(disabled[day], days.contains(day));
+                any |= disabled[day];
+                if (!disabled[day]) {
+                    nextEnabled = day;
+                }
+            }
+            assertEquals(any, days.containsAny(fromDay, toDay));
+            assertEquals(nextEnabled, days.nextEnabledDay(fromDay, toDay));
+        }
+    }
+
+    @Test
+    public void changedDaysIsSymmetricDifferenceInSpan() {
+        DisabledDays previous = DisabledDays.of(new int[]{1, 3, 5, 7, 9}, 5);
+        DisabledDays next = DisabledDays.of(new int[]{2, 3, 6, 7, 11}, 5);
+
+        assertArrayEquals(new int[]{1, 2, 5, 6, 9, 11}, previous.changedDays(next, 0, 20));
+        assertArrayEquals(new int[]{2, 5, 6}, previous.changedDays(next, 2, 6));
+        assertArrayEquals(new int[0], previous.changedDays(previous, 0, 20));
+    }
+}
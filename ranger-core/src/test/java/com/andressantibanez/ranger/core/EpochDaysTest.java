@@ -0,0 +1,45 @@
+package com.andressantibanez.ranger.core;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+
+public class EpochDaysTest {
+
+    //Covers negative eras, the Gregorian cutover years and far future days
+    private static final int FIRST_DAY = (int) LocalDate.of(-1200, 1, 1).toEpochDay();
+    private static final int LAST_DAY = (int) LocalDate.of(3200, 12, 31).toEpochDay();
+
+    @Test
+    public void fieldsMatchJavaTime() {
+        for (int epochDay = FIRST_DAY; epochDay <= LAST_DAY; epochDay++) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            assertEquals(date.toString(), date.getYear(), EpochDays.year(epochDay));
+            assertEquals(date.toString(), date.getMonthValue(), EpochDays.monthOfYear(epochDay));
+            assertEquals(date.toString(), date.getDayOfMonth(), EpochDays.dayOfMonth(epochDay));
+            assertEquals(date.toString(), date.getDayOfWeek().getValue(), EpochDays.dayOfWeek(epochDay));
+        }
+    }
+
+    @Test
+    public void ofRoundTrips() {
+        for (int epochDay = FIRST_DAY; epochDay <= LAST_DAY; epochDay++) {
+            int year = EpochDays.year(epochDay);
+            int month = EpochDays.monthOfYear(epochDay);
+            int day = EpochDays.dayOfMonth(epochDay);
+            assertEquals(epochDay, EpochDays.of(year, month, day));
+        }
+    }
+
+    @Test
+    public void lengthOfMonthMatchesJavaTime() {
+        for (int year = -400; year <= 2400; year++) {
+            for (int month = 1; month <= 12; month++) {
+                assertEquals(year + "-" + month, LocalDate.of(year, month, 1).lengthOfMonth(),
+                        EpochDays.lengthOfMonth(year, month));
+            }
+        }
+    }
+}
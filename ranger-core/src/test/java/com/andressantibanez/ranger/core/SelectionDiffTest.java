@@ -0,0 +1,77 @@
+package com.andressantibanez.ranger.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SelectionDiffTest {
+
+    private static int[] changedIntervals(int previousStart, int previousEnd, int start, int end) {
+        int[] intervals = new int[SelectionDiff.MAX_INTERVAL_VALUES];
+        int count = SelectionDiff.changedIntervals(previousStart, previousEnd, start, end, intervals);
+        return Arrays.copyOf(intervals, count);
+    }
+
+    @Test
+    public void noSelectionEitherSide() {
+        assertArrayEquals(new int[0], changedIntervals(-1, -1, -1, -1));
+        assertArrayEquals(new int[]{3, 3}, changedIntervals(-1, -1, 3, 3));
+        assertArrayEquals(new int[]{2, 5}, changedIntervals(2, 5, -1, -1));
+    }
+
+    @Test
+    public void disjointSpansRestyleBoth() {
+        assertArrayEquals(new int[]{1, 2, 6, 9}, changedIntervals(1, 2, 6, 9));
+        assertArrayEquals(new int[]{6, 9, 1, 2}, changedIntervals(6, 9, 1, 2));
+    }
+
+    @Test
+    public void overlappingSpansSkipTheSharedMiddle() {
+        //Extending the end only touches the old and new end
+        assertArrayEquals(new int[]{2, 2, 8, 12}, changedIntervals(2, 8, 2, 12));
+        //Moving both ends
+        assertArrayEquals(new int[]{2, 4, 8, 10}, changedIntervals(2, 10, 4, 8));
+    }
+
+    @Test
+    public void everyChangedDayIsCovered() {
+        for (int previousStart = -1; previousStart < 8; previousStart++) {
+            for (int previousEnd = Math.max(previousStart, 0); previousEnd < 8; previousEnd++) {
+                for (int start = -1; start < 8; start++) {
+                    for (int end = Math.max(start, 0); end < 8; end++) {
+                        int[] intervals = changedIntervals(previousStart, previousStart < 0 ? -1 : previousEnd,
+                                start, start < 0 ? -1 : end);
+                        for (int day = 0; day < 8; day++) {
+                            if (style(day, previousStart, previousEnd) != style(day, start, end)) {
+                                assertTrue(day + " not restyled", covered(intervals, day));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    //0 outside, 1 start, 2 inside, 3 end, 4 single day
+    private static int style(int day, int start, int end) {
+        if (start < 0 || day < start || day > end) {
+            return 0;
+        }
+        if (start == end) {
+            return 4;
+        }
+        return day == start ? 1 : day == end ? 3 : 2;
+    }
+
+    private static boolean covered(int[] intervals, int day) {
+        for (int i = 0; i < intervals.length; i += 2) {
+            if (day >= intervals[i] && day <= intervals[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}